@@ -0,0 +1,83 @@
+#!/usr/bin/env python3
+"""
+Compares the memory footprint of the classes generated by the V4MD example code generator
+with and without __slots__.
+
+Usage:
+    compare_footprint.py <plain output dir> <slots output dir> [instances per class]
+
+Generate the same model twice, e.g.
+    gradlew runCodeGen -PcodeGenOptions="--targets=python"
+    gradlew runCodeGen -PcodeGenOptions="--targets=python --python-slots"
+copying build/install/target/codegen away after the first run. Every generated class is instantiated
+(including its nested parts) in a fresh interpreter per output directory, and the memory
+allocated per instance is measured with tracemalloc.
+"""
+
+import json
+import os
+import subprocess
+import sys
+
+DEFAULT_INSTANCES = 1000
+
+
+def find_modules(root):
+    """The names of the generated block modules below root, i.e. the .py files other than __init__.py."""
+    modules = []
+    for directory, _, files in os.walk(root):
+        for file in files:
+            if file.endswith('.py') and file != '__init__.py':
+                relative = os.path.relpath(os.path.join(directory, file[:-3]), root)
+                modules.append(relative.replace(os.sep, '.'))
+    return sorted(modules)
+
+
+def measure(root, instances):
+    """Bytes allocated per instance of the class of each module; run in a fresh interpreter."""
+    import importlib
+    import tracemalloc
+    sys.path.insert(0, root)
+    footprint = {}
+    for module_name in find_modules(root):
+        module = importlib.import_module(module_name)
+        cls = getattr(module, module_name.rsplit('.', 1)[-1])
+        cls()  # warm up lazily created type caches
+        tracemalloc.start()
+        before = tracemalloc.get_traced_memory()[0]
+        objects = [cls() for _ in range(instances)]
+        after = tracemalloc.get_traced_memory()[0]
+        tracemalloc.stop()
+        footprint[module_name] = (after - before) / len(objects)
+        del objects
+    return footprint
+
+
+def measure_in_subprocess(root, instances):
+    output = subprocess.check_output([sys.executable, __file__, '--measure', root, str(instances)])
+    return json.loads(output.decode('utf-8'))
+
+
+def main(args):
+    if len(args) >= 1 and args[0] == '--measure':
+        print(json.dumps(measure(args[1], int(args[2]))))
+        return 0
+    if len(args) not in (2, 3):
+        print(__doc__, file=sys.stderr)
+        return 2
+    instances = int(args[2]) if len(args) == 3 else DEFAULT_INSTANCES
+    plain = measure_in_subprocess(os.path.abspath(args[0]), instances)
+    slots = measure_in_subprocess(os.path.abspath(args[1]), instances)
+    print('%-60s %12s %12s %8s' % ('class', 'plain B', 'slots B', 'saved'))
+    for name in sorted(plain, key=plain.get, reverse=True):
+        if name in slots:
+            saved = 1 - slots[name] / plain[name] if plain[name] else 0
+            print('%-60s %12.0f %12.0f %7.1f%%' % (name, plain[name], slots[name], saved * 100))
+    missing = sorted(set(plain) ^ set(slots))
+    if missing:
+        print('Generated into one of the directories only: ' + ', '.join(missing))
+    return 0
+
+
+if __name__ == '__main__':
+    sys.exit(main(sys.argv[1:]))
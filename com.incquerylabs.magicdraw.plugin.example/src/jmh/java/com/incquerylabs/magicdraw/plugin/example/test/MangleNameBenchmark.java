@@ -0,0 +1,56 @@
+package com.incquerylabs.magicdraw.plugin.example.test;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.incquerylabs.magicdraw.plugin.example.codegen.CodegenUtil;
+
+/**
+ * Compares {@link CodegenUtil#mangleName(String)} with the original regex
+ * based implementation. Not part of the test suite; run it with the jmh Gradle
+ * task or from its main method with the runtime classpath of the jmh source set.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MangleNameBenchmark {
+
+	private final String[] names = {
+			"Python Codegen Example", "UMLModel", "Block1", "flow port #1 (in)", "HTTPServer2Port", "class",
+			"engine", "powerSupply", "V4MD field", "abbreviatIONs"
+	};
+
+	@Benchmark
+	public void scanner(Blackhole blackhole) {
+		for (String name : names) {
+			blackhole.consume(CodegenUtil.mangleName(name));
+		}
+	}
+
+	@Benchmark
+	public void regex(Blackhole blackhole) {
+		for (String name : names) {
+			blackhole.consume(MangleNameTest.referenceMangleName(name));
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(MangleNameBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -10,9 +10,14 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.incquerylabs.magicdraw.plugin.example.actions.PortTypeCorrectorAction;
 import com.incquerylabs.magicdraw.plugin.example.actions.PythonGenAction;
+import com.incquerylabs.magicdraw.plugin.example.codegen.PythonGenWatchMode;
+import com.incquerylabs.magicdraw.plugin.example.commands.CodeGenDaemon;
 import com.incquerylabs.magicdraw.plugin.example.commands.CodeGenRunner;
 import com.nomagic.magicdraw.actions.ActionsConfiguratorsManager;
 import com.nomagic.magicdraw.commandline.CommandLineActionManager;
+import com.nomagic.magicdraw.core.Application;
+import com.nomagic.magicdraw.core.Project;
+import com.nomagic.magicdraw.core.project.ProjectEventListenerAdapter;
 import com.nomagic.magicdraw.plugins.Plugin;
 
 public class ExamplePlugin extends Plugin {
@@ -31,8 +36,17 @@ public class ExamplePlugin extends Plugin {
 		manager.addMainMenuConfigurator(
 				new ExampleMainMenuConfigurator(new PortTypeCorrectorAction(), new PythonGenAction()));
 		manager.addContainmentBrowserContextConfigurator(new EventDrivenPortTypeCorrectorConfigurator());
+		manager.addContainmentBrowserContextConfigurator(new PythonGenWatchModeConfigurator());
+		Application.getInstance().addProjectEventListener(new ProjectEventListenerAdapter() {
+			@Override
+			public void projectPreClosed(Project project) {
+				// disposes the codegen engine before the project is closed
+				PythonGenWatchMode.stop(project);
+			}
+		});
 
 		CommandLineActionManager.getInstance().addAction(new CodeGenRunner());
+		CommandLineActionManager.getInstance().addAction(new CodeGenDaemon());
 		// Initializing Xtext infrastructure
 		PatternLanguagePackage.eINSTANCE.getClass();
 
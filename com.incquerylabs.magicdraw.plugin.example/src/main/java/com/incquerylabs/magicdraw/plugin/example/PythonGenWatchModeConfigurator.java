@@ -0,0 +1,103 @@
+package com.incquerylabs.magicdraw.plugin.example;
+
+import java.awt.event.ActionEvent;
+import java.io.File;
+import java.util.List;
+
+import javax.swing.KeyStroke;
+
+import com.incquerylabs.magicdraw.plugin.example.codegen.PythonGenWatchMode;
+import com.incquerylabs.magicdraw.plugin.example.ui.wizard.SelectPackageAndOutputDirectoryWizard;
+import com.incquerylabs.magicdraw.plugin.example.ui.wizard.SelectPackageAndOutputDirectoryWizard.FinalizeWizardAction;
+import com.nomagic.actions.AMConfigurator;
+import com.nomagic.actions.ActionsCategory;
+import com.nomagic.actions.ActionsManager;
+import com.nomagic.actions.NMAction;
+import com.nomagic.magicdraw.actions.BrowserContextAMConfigurator;
+import com.nomagic.magicdraw.actions.MDActionsCategory;
+import com.nomagic.magicdraw.core.Application;
+import com.nomagic.magicdraw.core.Project;
+import com.nomagic.magicdraw.task.BackgroundTaskRunner;
+import com.nomagic.magicdraw.ui.browser.Tree;
+import com.nomagic.task.ProgressStatus;
+import com.nomagic.task.RunnableWithProgress;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Package;
+
+public class PythonGenWatchModeConfigurator implements BrowserContextAMConfigurator {
+
+	private static final String WATCH_MODE_CAT__ID   = "PYTHON_CODE_GENERATOR_WATCH_MODE";
+	private static final String WATCH_MODE_CAT__NAME = "Python Code Generator Watch Mode";
+	private static final String WATCH_MODE_ENABLE__ID   = "PYTHON_CODE_GENERATOR_WATCH_MODE_ENABLE";
+	private static final String WATCH_MODE_ENABLE__NAME = "Enable Python Code Generator Watch Mode";
+	private static final String WATCH_MODE_DISABLE__ID   = "PYTHON_CODE_GENERATOR_WATCH_MODE_DISABLE";
+	private static final String WATCH_MODE_DISABLE__NAME = "Disable Python Code Generator Watch Mode";
+
+	private final class WatchModeHandlerAction extends NMAction {
+		private static final long serialVersionUID = 1L;
+		private final boolean IS_STARTER;
+
+		public WatchModeHandlerAction(String id, String name, KeyStroke key, String group, boolean isStarter) {
+			super(id, name, key, group);
+			IS_STARTER = isStarter;
+		}
+
+		@Override
+		public void actionPerformed(ActionEvent event) {
+			Project project = Application.getInstance().getProject();
+			if(IS_STARTER) {
+				SelectPackageAndOutputDirectoryWizard wizard = new SelectPackageAndOutputDirectoryWizard(new FinalizeWizardAction() {
+
+					@Override
+					public void finalizeWizard(List<Package> selectedPackages, File selectedFolder) {
+						runInBackground(status -> PythonGenWatchMode.start(project, selectedPackages, selectedFolder));
+					}
+				});
+				wizard.setVisible(true);
+			} else {
+				runInBackground(status -> PythonGenWatchMode.stop(project));
+			}
+		}
+
+		private void runInBackground(WatchModeTask task) {
+			BackgroundTaskRunner.runWithProgressStatus(new RunnableWithProgress() {
+
+				@Override
+				public void run(ProgressStatus status) {
+					try {
+						task.run(status);
+					} catch (Exception e) {
+						e.printStackTrace();
+						Application.getInstance().getGUILog().log("Python code generator watch mode failed: " + e.getMessage());
+					}
+				}
+			}, String.format("Python Code Generator Watch Mode (%s)", IS_STARTER?"START":"STOP"), true);
+		}
+
+		@Override
+		public boolean isEnabled() {
+			Project project = Application.getInstance().getProject();
+			return project != null && IS_STARTER ^ PythonGenWatchMode.isRunning(project);
+		}
+
+	}
+
+	private interface WatchModeTask {
+		void run(ProgressStatus status) throws Exception;
+	}
+
+	@Override
+	public int getPriority() {
+		return AMConfigurator.MEDIUM_PRIORITY;
+	}
+
+	@Override
+	public void configure(ActionsManager manager, Tree tree) {
+		ActionsCategory cat = new MDActionsCategory(WATCH_MODE_CAT__ID, WATCH_MODE_CAT__NAME);
+		WatchModeHandlerAction enableAction = new WatchModeHandlerAction(WATCH_MODE_ENABLE__ID, WATCH_MODE_ENABLE__NAME, null, null, true);
+		cat.addAction(enableAction);
+		WatchModeHandlerAction disableAction = new WatchModeHandlerAction(WATCH_MODE_DISABLE__ID, WATCH_MODE_DISABLE__NAME, null, null, false);
+		cat.addAction(disableAction);
+		manager.addCategory(cat);
+	}
+
+}
@@ -0,0 +1,295 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The dependencies between the blocks of a run: a block depends on the blocks
+ * it must import, on the types of its parts, and on the types of the nested
+ * parts its connector ends reach through part paths, whose part and port
+ * names appear in its code.
+ * <p>
+ * The graph is built once from the snapshots, dependencies on blocks outside
+ * the run are ignored. Blocks are numbered in the order of the run, and both
+ * the dependencies and the dependents of the blocks are stored in compressed
+ * adjacency arrays: the neighbors of block i are the elements of the target
+ * array from offsets[i] until offsets[i + 1]. The import cycles, i.e. the
+ * strongly connected components with several blocks, and the topological
+ * levels are computed when the graph is built.
+ */
+public class BlockDependencyGraph {
+
+	private final CodegenBlock[] blocks;
+	private final Map<String, Integer> indices;
+	private final int[] dependencyOffsets;
+	private final int[] dependencies;
+	private final int[] dependentOffsets;
+	private final int[] dependents;
+	private final int[] levels;
+	private final List<List<CodegenBlock>> levelBlocks;
+	private final List<List<CodegenBlock>> cycles;
+
+	public BlockDependencyGraph(Collection<CodegenBlock> blocks) {
+		this.blocks = blocks.toArray(new CodegenBlock[0]);
+		int size = this.blocks.length;
+		indices = new HashMap<>(size * 2);
+		for (int i = 0; i < size; i++) {
+			indices.put(this.blocks[i].getRef().getQualifiedName(), i);
+		}
+
+		// dependencies of each block, without duplicates and self-references
+		dependencyOffsets = new int[size + 1];
+		int[] targets = new int[16];
+		int edges = 0;
+		BitSet added = new BitSet(size);
+		for (int i = 0; i < size; i++) {
+			dependencyOffsets[i] = edges;
+			added.clear();
+			for (CodegenBlock.Ref dependency : getDependencyRefs(this.blocks[i])) {
+				Integer target = indices.get(dependency.getQualifiedName());
+				if (target != null && target != i && !added.get(target)) {
+					added.set(target);
+					if (edges == targets.length)
+						targets = Arrays.copyOf(targets, edges * 2);
+					targets[edges++] = target;
+				}
+			}
+		}
+		dependencyOffsets[size] = edges;
+		dependencies = Arrays.copyOf(targets, edges);
+
+		// the reverse edges, counted first and then filled in
+		dependentOffsets = new int[size + 1];
+		for (int edge = 0; edge < edges; edge++) {
+			dependentOffsets[dependencies[edge] + 1]++;
+		}
+		for (int i = 0; i < size; i++) {
+			dependentOffsets[i + 1] += dependentOffsets[i];
+		}
+		dependents = new int[edges];
+		int[] filled = Arrays.copyOf(dependentOffsets, size);
+		for (int i = 0; i < size; i++) {
+			for (int edge = dependencyOffsets[i]; edge < dependencyOffsets[i + 1]; edge++) {
+				dependents[filled[dependencies[edge]]++] = i;
+			}
+		}
+
+		int[] components = new int[size];
+		List<int[]> componentMembers = findComponents(dependencyOffsets, dependencies, components);
+		cycles = new ArrayList<>();
+		for (int[] members : componentMembers) {
+			if (members.length > 1)
+				cycles.add(toBlocks(members));
+		}
+		levels = computeLevels(components, componentMembers);
+		levelBlocks = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			while (levelBlocks.size() <= levels[i]) {
+				levelBlocks.add(new ArrayList<>());
+			}
+			levelBlocks.get(levels[i]).add(this.blocks[i]);
+		}
+	}
+
+	private List<CodegenBlock.Ref> getDependencyRefs(CodegenBlock block) {
+		List<CodegenBlock.Ref> refs = new ArrayList<>(block.getImports());
+		for (CodegenBlock.Part part : block.getParts()) {
+			refs.add(part.getType());
+		}
+		for (CodegenBlock.Assembly conn : block.getAssemblies()) {
+			addOwnerRefs(block, conn.getFirst(), refs);
+			addOwnerRefs(block, conn.getSecond(), refs);
+		}
+		for (CodegenBlock.Port port : block.getPorts()) {
+			for (CodegenBlock.EndPath target : port.getDelegationTargets()) {
+				addOwnerRefs(block, target, refs);
+			}
+		}
+		return refs;
+	}
+
+	/**
+	 * Adds the types of the parts along the owner path of the connector end,
+	 * as far as they are blocks of the graph.
+	 */
+	private void addOwnerRefs(CodegenBlock block, CodegenBlock.EndPath end, List<CodegenBlock.Ref> refs) {
+		CodegenBlock owner = block;
+		for (String step : end.getOwnerPath()) {
+			CodegenBlock.Ref type = null;
+			for (CodegenBlock.Part part : owner.getParts()) {
+				if (part.getName().equals(step))
+					type = part.getType();
+			}
+			Integer index = type == null ? null : indices.get(type.getQualifiedName());
+			if (index == null)
+				return;
+			refs.add(type);
+			owner = blocks[index];
+		}
+	}
+
+	public int size() {
+		return blocks.length;
+	}
+
+	/**
+	 * The index of the referenced block, or -1 if it is not in the graph.
+	 */
+	public int indexOf(CodegenBlock.Ref block) {
+		return indices.getOrDefault(block.getQualifiedName(), -1);
+	}
+
+	public CodegenBlock getBlock(int index) {
+		return blocks[index];
+	}
+
+	/**
+	 * The blocks the block depends on.
+	 */
+	public List<CodegenBlock> getDependencies(int index) {
+		return toBlocks(Arrays.copyOfRange(dependencies, dependencyOffsets[index], dependencyOffsets[index + 1]));
+	}
+
+	/**
+	 * The blocks importing the block, having a part typed by it or connecting
+	 * ports of its nested parts, i.e. the blocks whose code may change when the
+	 * name or path of the block or the names of its parts or ports change.
+	 */
+	public List<CodegenBlock> getDependents(int index) {
+		return toBlocks(Arrays.copyOfRange(dependents, dependentOffsets[index], dependentOffsets[index + 1]));
+	}
+
+	/**
+	 * The topological level of the block: 0 if it depends on no other block,
+	 * otherwise one more than the highest level of its dependencies outside its
+	 * import cycle. The blocks of a cycle share their level.
+	 */
+	public int getLevel(int index) {
+		return levels[index];
+	}
+
+	/**
+	 * The blocks of each level, lowest level first, in the order of the run
+	 * within a level; the blocks of a level only depend on blocks of lower
+	 * levels or of their own import cycle.
+	 */
+	public List<List<CodegenBlock>> getLevels() {
+		return Collections.unmodifiableList(levelBlocks);
+	}
+
+	/**
+	 * The sets of blocks importing each other in a cycle.
+	 */
+	public List<List<CodegenBlock>> getCycles() {
+		return Collections.unmodifiableList(cycles);
+	}
+
+	public void report(PrintStream out) {
+		for (List<CodegenBlock> cycle : cycles) {
+			StringBuilder names = new StringBuilder();
+			for (CodegenBlock block : cycle) {
+				names.append(names.length() == 0 ? "" : ", ").append(block.getRef().getQualifiedName());
+			}
+			out.println(String.format("Import cycle between the blocks %s", names));
+		}
+	}
+
+	private List<CodegenBlock> toBlocks(int[] indices) {
+		List<CodegenBlock> result = new ArrayList<>(indices.length);
+		for (int index : indices) {
+			result.add(blocks[index]);
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the strongly connected components of a graph given by compressed
+	 * adjacency arrays, with an iterative version of Tarjan's algorithm, so
+	 * that long dependency chains do not overflow the stack. Components are
+	 * found dependencies first, each with its nodes in ascending order; the
+	 * component of each node is stored in the given array.
+	 */
+	static List<int[]> findComponents(int[] dependencyOffsets, int[] dependencies, int[] components) {
+		int size = components.length;
+		int[] index = new int[size];
+		int[] lowLink = new int[size];
+		Arrays.fill(index, -1);
+		BitSet onStack = new BitSet(size);
+		int[] stack = new int[size];
+		int stackSize = 0;
+		int[] callStack = new int[size];
+		int[] nextEdge = new int[size];
+		int nextIndex = 0;
+		List<int[]> result = new ArrayList<>();
+		for (int root = 0; root < size; root++) {
+			if (index[root] >= 0)
+				continue;
+			int depth = 0;
+			callStack[depth] = root;
+			index[root] = lowLink[root] = nextIndex++;
+			nextEdge[root] = dependencyOffsets[root];
+			stack[stackSize++] = root;
+			onStack.set(root);
+			while (depth >= 0) {
+				int node = callStack[depth];
+				if (nextEdge[node] < dependencyOffsets[node + 1]) {
+					int dependency = dependencies[nextEdge[node]++];
+					if (index[dependency] < 0) {
+						index[dependency] = lowLink[dependency] = nextIndex++;
+						nextEdge[dependency] = dependencyOffsets[dependency];
+						stack[stackSize++] = dependency;
+						onStack.set(dependency);
+						callStack[++depth] = dependency;
+					} else if (onStack.get(dependency)) {
+						lowLink[node] = Math.min(lowLink[node], index[dependency]);
+					}
+					continue;
+				}
+				if (lowLink[node] == index[node]) {
+					int start = stackSize;
+					do {
+						start--;
+						onStack.clear(stack[start]);
+						components[stack[start]] = result.size();
+					} while (stack[start] != node);
+					int[] members = Arrays.copyOfRange(stack, start, stackSize);
+					Arrays.sort(members);
+					result.add(members);
+					stackSize = start;
+				}
+				depth--;
+				if (depth >= 0) {
+					int caller = callStack[depth];
+					lowLink[caller] = Math.min(lowLink[caller], lowLink[node]);
+				}
+			}
+		}
+		return result;
+	}
+
+	private int[] computeLevels(int[] components, List<int[]> componentMembers) {
+		int[] result = new int[blocks.length];
+		// components are ordered dependencies first, so the levels of dependencies are known
+		for (int component = 0; component < componentMembers.size(); component++) {
+			int level = 0;
+			for (int member : componentMembers.get(component)) {
+				for (int edge = dependencyOffsets[member]; edge < dependencyOffsets[member + 1]; edge++) {
+					int dependency = dependencies[edge];
+					if (components[dependency] != component)
+						level = Math.max(level, result[dependency] + 1);
+				}
+			}
+			for (int member : componentMembers.get(component)) {
+				result[member] = level;
+			}
+		}
+		return result;
+	}
+}
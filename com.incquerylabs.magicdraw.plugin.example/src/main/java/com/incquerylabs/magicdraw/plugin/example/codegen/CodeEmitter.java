@@ -0,0 +1,73 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Backend of the code generator for a target language.
+ * <p>
+ * {@link GenPython} collects the {@link CodegenBlock} snapshots of the scope
+ * once; each emitter of the run then maps every block to a file of its own.
+ * Emitters only read snapshots, so {@link #renderBlock(CodegenBlock)} may be
+ * called from several threads. Emitters are registered by name in
+ * {@link CodeEmitters}.
+ */
+public interface CodeEmitter {
+
+	/**
+	 * The name of the target, e.g. "python".
+	 */
+	String getName();
+
+	/**
+	 * Salt of the render cache keys; to be changed whenever the code rendered
+	 * for the same block changes.
+	 */
+	String getVersion();
+
+	/**
+	 * The path of the file generated from the referenced block, relative to
+	 * the code outlet root; blocks bundled into one file share its path.
+	 */
+	String getBlockFilePath(CodegenBlock.Ref ref);
+
+	/**
+	 * The files that must exist, possibly empty, in the packages containing the
+	 * referenced block, outermost first; e.g. the __init__.py files of Python
+	 * packages. None by default.
+	 */
+	default List<String> getPackageFilePaths(CodegenBlock.Ref ref) {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Whether the file of the block is rendered for the block. Emitters
+	 * bundling several blocks into one file render it for one of them, and
+	 * the others are skipped. True by default.
+	 */
+	default boolean rendersFile(CodegenBlock block) {
+		return true;
+	}
+
+	/**
+	 * Called with all blocks of a run before any of them is rendered, for
+	 * emitters whose code of a block depends on other blocks. Nothing by
+	 * default.
+	 */
+	default void prepare(List<CodegenBlock> blocks) {
+	}
+
+	/**
+	 * Salt of the render cache key of the block: the name and the version, and
+	 * whatever the code depends on besides the snapshot of the block.
+	 */
+	default String getRenderCacheSalt(CodegenBlock block) {
+		return getName() + ":" + getVersion();
+	}
+
+	/**
+	 * Renders the code of the file generated from the block.
+	 */
+	CharSequence renderBlock(CodegenBlock block);
+
+}
@@ -0,0 +1,48 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the code emitters that can be selected by name, e.g. from the
+ * options of a code generator run. The Python, Java and C++ emitters are
+ * registered by default; other plugins may register further ones.
+ */
+public final class CodeEmitters {
+
+	private static final Map<String, Supplier<CodeEmitter>> EMITTERS = new LinkedHashMap<>();
+
+	static {
+		register(PythonEmitter.NAME, PythonEmitter::new);
+		register(JavaEmitter.NAME, JavaEmitter::new);
+		register(CppEmitter.NAME, CppEmitter::new);
+	}
+
+	private CodeEmitters() {
+	}
+
+	/**
+	 * Registers a factory of emitters, replacing the one registered with the
+	 * same name.
+	 */
+	public static synchronized void register(String name, Supplier<CodeEmitter> factory) {
+		EMITTERS.put(name, factory);
+	}
+
+	public static synchronized List<String> getNames() {
+		return new ArrayList<>(EMITTERS.keySet());
+	}
+
+	/**
+	 * Creates a new emitter of the given registered name.
+	 */
+	public static synchronized CodeEmitter create(String name) {
+		Supplier<CodeEmitter> factory = EMITTERS.get(name);
+		if (factory == null)
+			throw new IllegalArgumentException("Unknown code emitter " + name + ", expected one of " + EMITTERS.keySet());
+		return factory.get();
+	}
+}
@@ -0,0 +1,50 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Destination of the files produced by a code generator run.
+ * <p>
+ * Paths are relative to the root of the outlet and use '/' as separator.
+ * Implementations must allow files to be written from several threads.
+ */
+public interface CodeOutlet {
+
+	/**
+	 * Writes a generated file, replacing its previous content.
+	 */
+	void writeFile(String path, String content) throws IOException;
+
+	/**
+	 * Creates the given directories, ordered parents first, before files are
+	 * written into them. Outlets without directories need not override this.
+	 */
+	default void createDirectories(Collection<String> paths) throws IOException {
+	}
+
+	/**
+	 * Ensures that the given file exists, creating it empty if needed (e.g. a
+	 * Python package marker).
+	 */
+	void ensureFile(String path) throws IOException;
+
+	/**
+	 * Deletes a previously generated file, if it exists.
+	 */
+	void deleteFile(String path) throws IOException;
+
+	/**
+	 * Sets the statistics to which the outlet reports each generated file it
+	 * actually writes, with its encoded size. Outlets writing nothing need not
+	 * override this.
+	 */
+	default void setStatistics(CodegenStatistics statistics) {
+	}
+
+	/**
+	 * Finishes the run; called once after all files have been written.
+	 */
+	void close() throws IOException;
+
+}
@@ -0,0 +1,273 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Class;
+
+/**
+ * Snapshot of everything the code generator reads about a single block.
+ * <p>
+ * Snapshots are collected while the query engine is at hand; rendering and
+ * writing a block only uses its snapshot, so it can run on any thread without
+ * touching the model or the engine.
+ */
+public class CodegenBlock {
+
+	/**
+	 * Reference to a generated block or package: its mangled name and the
+	 * reference to its package, null for top-level elements.
+	 * <p>
+	 * References of the same run share the references of their packages, and
+	 * the derived path forms are computed once per reference from the forms of
+	 * its package.
+	 */
+	public static class Ref {
+		private final Ref parent;
+		private final String name;
+		private List<String> pathSteps;
+		private String moduleName;
+		private String qualifiedName;
+		private String filePath;
+		private String packageFilePath;
+
+		public Ref(Ref parent, String name) {
+			this.parent = parent;
+			this.name = name;
+		}
+
+		public Ref getParent() {
+			return parent;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * The mangled names from the top-level package down to this element.
+		 */
+		public List<String> getPathSteps() {
+			if (pathSteps == null) {
+				List<String> steps = new ArrayList<>(parent == null ? Collections.emptyList() : parent.getPathSteps());
+				steps.add(name);
+				pathSteps = Collections.unmodifiableList(steps);
+			}
+			return pathSteps;
+		}
+
+		/**
+		 * The path steps joined by '.', i.e. the name of the Python module.
+		 */
+		public String getModuleName() {
+			if (moduleName == null)
+				moduleName = parent == null ? name : parent.getModuleName() + '.' + name;
+			return moduleName;
+		}
+
+		/**
+		 * The module name followed by the name, i.e. the qualified name of the
+		 * Python class generated into the module.
+		 */
+		public String getQualifiedName() {
+			if (qualifiedName == null)
+				qualifiedName = getModuleName() + '.' + name;
+			return qualifiedName;
+		}
+
+		/**
+		 * The path steps joined by '/', i.e. the path of the module or package
+		 * directory relative to the code outlet root.
+		 */
+		public String getFilePath() {
+			if (filePath == null)
+				filePath = parent == null ? name : parent.getFilePath() + '/' + name;
+			return filePath;
+		}
+
+		/**
+		 * The path of the __init__.py file of the package, relative to the code
+		 * outlet root.
+		 */
+		public String getPackageFilePath() {
+			if (packageFilePath == null)
+				packageFilePath = getFilePath() + "/__init__.py";
+			return packageFilePath;
+		}
+	}
+
+	/**
+	 * Path from a block to a port of one of its (nested) parts; the owner path
+	 * is empty for ports of the block itself.
+	 */
+	public static class EndPath {
+		private final List<String> ownerPath;
+		private final String portName;
+		private String dottedOwnerPath;
+		private String dottedPortPath;
+
+		public EndPath(List<String> ownerPath, String portName) {
+			this.ownerPath = ownerPath;
+			this.portName = portName;
+		}
+
+		public List<String> getOwnerPath() {
+			return ownerPath;
+		}
+
+		public String getPortName() {
+			return portName;
+		}
+
+		/**
+		 * The owner path with each step prefixed by '.', e.g. ".part.nestedPart";
+		 * empty for ports of the block itself.
+		 */
+		public String getDottedOwnerPath() {
+			if (dottedOwnerPath == null) {
+				StringBuilder path = new StringBuilder();
+				for (String step : ownerPath) {
+					path.append('.').append(step);
+				}
+				dottedOwnerPath = path.toString();
+			}
+			return dottedOwnerPath;
+		}
+
+		/**
+		 * The dotted owner path followed by the port name, e.g.
+		 * ".part.nestedPart.port".
+		 */
+		public String getDottedPortPath() {
+			if (dottedPortPath == null)
+				dottedPortPath = getDottedOwnerPath() + '.' + portName;
+			return dottedPortPath;
+		}
+	}
+
+	public static class Part {
+		private final String name;
+		private final Ref type;
+
+		public Part(String name, Ref type) {
+			this.name = name;
+			this.type = type;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Ref getType() {
+			return type;
+		}
+	}
+
+	public static class Assembly {
+		private final EndPath first;
+		private final EndPath second;
+
+		public Assembly(EndPath first, EndPath second) {
+			this.first = first;
+			this.second = second;
+		}
+
+		public EndPath getFirst() {
+			return first;
+		}
+
+		public EndPath getSecond() {
+			return second;
+		}
+	}
+
+	public static class Port {
+		private final String name;
+		private final List<EndPath> delegationTargets;
+
+		public Port(String name, List<EndPath> delegationTargets) {
+			this.name = name;
+			this.delegationTargets = delegationTargets;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public List<EndPath> getDelegationTargets() {
+			return delegationTargets;
+		}
+	}
+
+	private final Class block;
+	private final Ref ref;
+	private final String humanName;
+	private final boolean nameValid;
+	private final List<Ref> imports;
+	private final List<Part> parts;
+	private final List<Assembly> assemblies;
+	private final List<Port> ports;
+
+	public CodegenBlock(Class block, Ref ref, String humanName, boolean nameValid, List<Ref> imports,
+			List<Part> parts, List<Assembly> assemblies, List<Port> ports) {
+		this.block = block;
+		this.ref = ref;
+		this.humanName = humanName;
+		this.nameValid = nameValid;
+		this.imports = imports;
+		this.parts = parts;
+		this.assemblies = assemblies;
+		this.ports = ports;
+	}
+
+	/**
+	 * The model element this snapshot was collected from; not to be read while
+	 * rendering.
+	 */
+	public Class getBlock() {
+		return block;
+	}
+
+	public Ref getRef() {
+		return ref;
+	}
+
+	public String getName() {
+		return ref.getName();
+	}
+
+	public String getHumanName() {
+		return humanName;
+	}
+
+	/**
+	 * Whether the mangled name of the block is unique, i.e. whether its file
+	 * can be generated.
+	 */
+	public boolean isNameValid() {
+		return nameValid;
+	}
+
+	public List<Ref> getImports() {
+		return imports;
+	}
+
+	/**
+	 * Parts with a valid name and block type.
+	 */
+	public List<Part> getParts() {
+		return parts;
+	}
+
+	public List<Assembly> getAssemblies() {
+		return assemblies;
+	}
+
+	/**
+	 * Ports with a valid name and block type.
+	 */
+	public List<Port> getPorts() {
+		return ports;
+	}
+}
@@ -1,11 +1,17 @@
 package com.incquerylabs.magicdraw.plugin.example.codegen;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.eclipse.viatra.query.patternlanguage.emf.util.PatternParser;
 import org.eclipse.viatra.query.patternlanguage.emf.util.PatternParserBuilder;
 import org.eclipse.viatra.query.patternlanguage.emf.util.PatternParsingResults;
+import org.eclipse.viatra.query.runtime.api.GenericQueryGroup;
 import org.eclipse.viatra.query.runtime.api.IPatternMatch;
 import org.eclipse.viatra.query.runtime.api.IQuerySpecification;
 import org.eclipse.viatra.query.runtime.api.ViatraQueryEngine;
@@ -34,12 +40,35 @@ public class CodegenPatternLoader {
 	 * Patterns stored in {@link GenPythonHelper}.
 	 */
 	private static final String MANGLED_NAME_COLLISION = "mangledNameCollision";
+	private static final String MANGLED_NAME = "mangledName";
+
+	private static final String[] GENERATOR_PATTERNS = { BLOCK_TO_GEN, PORT_TO_GEN, MANDATORY_PART_TO_GEN,
+			BLOCK_MUST_IMPORT, ASSEMBLY_TO_GEN, DELEGATION_TO_GEN, CONNECTOR_END_NESTED_PATH, MANGLED_NAME_COLLISION,
+			MANGLED_NAME };
 	
 	public static final String QUERY_DEFINITION_NAME_FOR_CODE_GEN = "QueryDefinitionForCodeGen";
+
+	/**
+	 * Parsing results of the most recently used query definitions, shared by
+	 * all loaders, so that a long-lived process parses each definition once.
+	 */
+	private static final int PARSED_QUERY_DEFINITIONS_SIZE = 8;
+	private static final Map<String, PatternParsingResults> PARSED_QUERY_DEFINITIONS = Collections
+			.synchronizedMap(new LinkedHashMap<String, PatternParsingResults>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, PatternParsingResults> eldest) {
+					return size() > PARSED_QUERY_DEFINITIONS_SIZE;
+				}
+			});
+
 	private PatternParsingResults parsingResults;
+	private ViatraQueryEngine preparedEngine;
 	
 
 	public void init() throws IOException {
+		preparedEngine = null;
 		Project project = Application.getInstance().getProject();
 		if (project == null)
 			throw new IllegalArgumentException("No project is open.");
@@ -63,6 +92,9 @@ public class CodegenPatternLoader {
 	private void parseQueryDefinitions(OpaqueBehavior queryDefinition) {
 		
 		String queryDefinitionSerialized = GenPythonHelper.prepare(queryDefinition).toString();
+		parsingResults = PARSED_QUERY_DEFINITIONS.get(queryDefinitionSerialized);
+		if (parsingResults != null)
+			return;
 
 		PatternParserBuilder parserBuilder = new PatternParserBuilder();
 		PatternParser parser = parserBuilder.build();
@@ -70,6 +102,50 @@ public class CodegenPatternLoader {
 		for (Issue issue : parsingResults.getErrors()) {
 			System.out.println(issue.getMessage());
 		}
+		if (!parsingResults.hasError())
+			PARSED_QUERY_DEFINITIONS.put(queryDefinitionSerialized, parsingResults);
+	}
+
+	/**
+	 * Prepares the matchers of all patterns used by the code generator as a
+	 * single query group, so that the model is indexed in one traversal instead
+	 * of once per pattern on its first use.
+	 */
+	void prepare(final ViatraQueryEngine engine) throws IllegalAccessException {
+		Set<IQuerySpecification<?>> querySpecifications = new LinkedHashSet<>();
+		for (String patternName : GENERATOR_PATTERNS) {
+			querySpecifications.add(parsingResults.getQuerySpecification(patternName).orElseThrow(
+					() -> new IllegalAccessException(patternName + " is missing from the QueryDefinition.")));
+		}
+		GenericQueryGroup.of(querySpecifications).prepare(engine);
+		preparedEngine = engine;
+	}
+
+	/**
+	 * Whether the patterns parsed by the last {@link #init()} are prepared on
+	 * the given engine, so that a loader kept with a project whose model is
+	 * not changed can be reused without parsing and preparing them again.
+	 */
+	boolean isPrepared(final ViatraQueryEngine engine) {
+		return parsingResults != null && preparedEngine == engine;
+	}
+
+	/**
+	 * Records the time of getting the matcher of each pattern used by the code
+	 * generator and the number of its matches. After {@link #prepare}, this is
+	 * the cost of each matcher on top of the shared indexing.
+	 */
+	@SuppressWarnings("unchecked")
+	void measure(final ViatraQueryEngine engine, CodegenStatistics statistics) throws IllegalAccessException {
+		for (String patternName : GENERATOR_PATTERNS) {
+			IQuerySpecification<?> querySpecification = parsingResults.getQuerySpecification(patternName).orElseThrow(
+					() -> new IllegalAccessException(patternName + " is missing from the QueryDefinition."));
+			long start = System.nanoTime();
+			ViatraQueryMatcher<IPatternMatch> matcher = (ViatraQueryMatcher<IPatternMatch>) engine
+					.getMatcher(querySpecification);
+			int matches = matcher.countMatches();
+			statistics.recordPattern(patternName, System.nanoTime() - start, matches);
+		}
 	}
 
 	@SuppressWarnings("unchecked")
@@ -99,6 +175,15 @@ public class CodegenPatternLoader {
 		throw new IllegalAccessException(MANGLED_NAME_COLLISION + " is missing from the QueryDefinition.");
 	}
 	
+	@SuppressWarnings("unchecked")
+	ViatraQueryMatcher<IPatternMatch> getMangledName(final ViatraQueryEngine engine) throws IllegalAccessException {
+		Optional<IQuerySpecification<?>> querySpecification = parsingResults.getQuerySpecification(MANGLED_NAME);
+		if(querySpecification.isPresent())
+			return (ViatraQueryMatcher<IPatternMatch>) engine.getMatcher(querySpecification.get());
+		
+		throw new IllegalAccessException(MANGLED_NAME + " is missing from the QueryDefinition.");
+	}
+	
 	@SuppressWarnings("unchecked")
 	ViatraQueryMatcher<IPatternMatch> getMandatoryPartToGen(final ViatraQueryEngine engine) throws IllegalAccessException {
 		Optional<IQuerySpecification<?>> querySpecification = parsingResults.getQuerySpecification(MANDATORY_PART_TO_GEN);
@@ -0,0 +1,155 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.viatra.query.runtime.api.IPatternMatch;
+import org.eclipse.viatra.query.runtime.api.ViatraQueryEngine;
+import org.eclipse.viatra.query.runtime.api.ViatraQueryMatcher;
+
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Class;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Package;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Property;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Slot;
+import com.nomagic.uml2.ext.magicdraw.compositestructures.mdinternalstructures.Connector;
+import com.nomagic.uml2.ext.magicdraw.compositestructures.mdinternalstructures.ConnectorEnd;
+import com.nomagic.uml2.ext.magicdraw.compositestructures.mdports.Port;
+
+/**
+ * Typed access to the codegen patterns on a single engine.
+ * <p>
+ * The matchers and the positions of the parameters used by the code generator
+ * are resolved once, when the facade is created, which fails if a pattern or
+ * parameter is missing. Lookups then only bind parameters by position.
+ */
+public class CodegenQueries {
+
+	/**
+	 * A matcher with the positions of a fixed list of its parameters.
+	 */
+	private static final class PatternAccess {
+		private final ViatraQueryMatcher<IPatternMatch> matcher;
+		private final int arity;
+		private final int[] positions;
+
+		PatternAccess(ViatraQueryMatcher<IPatternMatch> matcher, String... parameterNames) throws IllegalAccessException {
+			this.matcher = matcher;
+			this.arity = matcher.getParameterNames().size();
+			this.positions = new int[parameterNames.length];
+			for (int i = 0; i < parameterNames.length; i++) {
+				Integer position = matcher.getPositionOfParameter(parameterNames[i]);
+				if (position == null)
+					throw new IllegalAccessException("Parameter " + parameterNames[i] + " of "
+							+ matcher.getPatternName() + " is missing from the QueryDefinition.");
+				positions[i] = position;
+			}
+		}
+
+		/**
+		 * Arguments are given in the order of the parameter names passed to the
+		 * constructor; null leaves a parameter unbound.
+		 */
+		private IPatternMatch filter(Object... arguments) {
+			Object[] parameters = new Object[arity];
+			for (int i = 0; i < arguments.length; i++) {
+				parameters[positions[i]] = arguments[i];
+			}
+			return matcher.newMatch(parameters);
+		}
+
+		Stream<IPatternMatch> matches(Object... arguments) {
+			return matcher.streamAllMatches(filter(arguments));
+		}
+
+		boolean hasMatch(Object... arguments) {
+			return matcher.hasMatch(filter(arguments));
+		}
+
+		<T> List<T> values(int parameter, java.lang.Class<T> type, Object... arguments) {
+			int position = positions[parameter];
+			return matches(arguments).map(match -> type.cast(match.get(position))).collect(Collectors.toList());
+		}
+	}
+
+	private final PatternAccess blockToGen;
+	private final PatternAccess portToGen;
+	private final PatternAccess mandatoryPartToGen;
+	private final PatternAccess assemblyToGen;
+	private final PatternAccess delegationToGen;
+	private final PatternAccess connectorEndNestedPath;
+	private final PatternAccess blockMustImport;
+	private final ViatraQueryMatcher<IPatternMatch> mangledNameCollision;
+
+	/**
+	 * Resolves the codegen patterns parsed by the given, initialized loader on
+	 * the given engine.
+	 */
+	public CodegenQueries(CodegenPatternLoader patterns, ViatraQueryEngine engine) throws IllegalAccessException {
+		blockToGen = new PatternAccess(patterns.getBlockToGen(engine), "block", "pack");
+		portToGen = new PatternAccess(patterns.getPortToGen(engine), "port", "block");
+		mandatoryPartToGen = new PatternAccess(patterns.getMandatoryPartToGen(engine), "part", "block");
+		assemblyToGen = new PatternAccess(patterns.getAssemblyToGen(engine), "connector", "block");
+		delegationToGen = new PatternAccess(patterns.getDelegationToGen(engine), "externalPort", "otherEnd", "block");
+		connectorEndNestedPath = new PatternAccess(patterns.getConnectorEndNestedPath(engine), "end", "propertyPath");
+		blockMustImport = new PatternAccess(patterns.getBlockMustImport(engine), "block", "importedBlock");
+		mangledNameCollision = new PatternAccess(patterns.getMangledNameCollision(engine), "namespace", "element",
+				"mangledName").matcher;
+	}
+
+	public List<Class> getBlocksToGen(Package pack) {
+		return blockToGen.values(0, Class.class, null, pack);
+	}
+
+	public boolean isBlockToGen(Class block) {
+		return blockToGen.hasMatch(block, null);
+	}
+
+	public boolean isBlockToGen(Class block, Package pack) {
+		return blockToGen.hasMatch(block, pack);
+	}
+
+	public List<Port> getPortsToGen(Class block) {
+		return portToGen.values(0, Port.class, null, block);
+	}
+
+	public boolean isPortToGen(Port port) {
+		return portToGen.hasMatch(port, null);
+	}
+
+	public List<Property> getMandatoryPartsToGen(Class block) {
+		return mandatoryPartToGen.values(0, Property.class, null, block);
+	}
+
+	public boolean isMandatoryPartToGen(Property part) {
+		return mandatoryPartToGen.hasMatch(part, null);
+	}
+
+	public List<Connector> getAssembliesToGen(Class block) {
+		return assemblyToGen.values(0, Connector.class, null, block);
+	}
+
+	/**
+	 * The inner ends of the delegation connectors of the given port of the given
+	 * block.
+	 */
+	public List<ConnectorEnd> getDelegationTargets(Port externalPort, Class block) {
+		return delegationToGen.values(1, ConnectorEnd.class, externalPort, null, block);
+	}
+
+	public List<Slot> getPropertyPaths(ConnectorEnd end) {
+		return connectorEndNestedPath.values(1, Slot.class, end, null);
+	}
+
+	public List<Class> getImportedBlocks(Class block) {
+		return blockMustImport.values(1, Class.class, block, null);
+	}
+
+	/**
+	 * The matcher of mangledNameCollision(namespace, element, mangledName), see
+	 * {@link MangledNameCollisionIndex}.
+	 */
+	public ViatraQueryMatcher<IPatternMatch> getMangledNameCollision() {
+		return mangledNameCollision;
+	}
+}
@@ -0,0 +1,257 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timings and counters of a code generator run: the duration of each phase,
+ * the matchers of the codegen patterns, the rendered blocks, the generated
+ * files and the failed checks.
+ * <p>
+ * Phases are recorded in the order they finish. Blocks may be recorded from
+ * several threads; only the slowest blocks are kept individually. The
+ * statistics are written as JSON by {@link #writeJson(File)} and summarized by
+ * {@link #printSummary(PrintStream)}.
+ */
+public class CodegenStatistics {
+
+	public static final String REPORT_FILE_SUFFIX = ".v4md-codegen-report.json";
+
+	private static final int SLOWEST_BLOCKS = 10;
+
+	private static class PatternStatistics {
+		private final String name;
+		private final long matcherNanos;
+		private final int matches;
+
+		PatternStatistics(String name, long matcherNanos, int matches) {
+			this.name = name;
+			this.matcherNanos = matcherNanos;
+			this.matches = matches;
+		}
+	}
+
+	private static class BlockStatistics {
+		private final String path;
+		private final long renderNanos;
+
+		BlockStatistics(String path, long renderNanos) {
+			this.path = path;
+			this.renderNanos = renderNanos;
+		}
+	}
+
+	private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+	private final List<PatternStatistics> patterns = new ArrayList<>();
+	private final Map<String, Integer> checkFailures = new LinkedHashMap<>();
+	private final PriorityQueue<BlockStatistics> slowestBlocks = new PriorityQueue<>(
+			Comparator.comparingLong(block -> block.renderNanos));
+	private final AtomicLong blocks = new AtomicLong();
+	private final AtomicLong renderNanos = new AtomicLong();
+	private final AtomicLong writeNanos = new AtomicLong();
+	private final AtomicLong filesWritten = new AtomicLong();
+	private final AtomicLong bytesWritten = new AtomicLong();
+	private final AtomicLong packageFiles = new AtomicLong();
+	private int nameCollisions = 0;
+	private int importCycles = 0;
+
+	/**
+	 * Records a phase that started at the given {@link System#nanoTime()};
+	 * returns the current time, i.e. the start of the next phase. A phase
+	 * recorded again is added up.
+	 */
+	public synchronized long recordPhase(String phase, long startNanos) {
+		long now = System.nanoTime();
+		recordPhaseNanos(phase, now - startNanos);
+		return now;
+	}
+
+	/**
+	 * Records a phase measured before the statistics were created, with its
+	 * duration.
+	 */
+	public synchronized void recordPhaseNanos(String phase, long nanos) {
+		phaseNanos.merge(phase, nanos, Long::sum);
+	}
+
+	/**
+	 * Records the time spent on getting the matcher of a pattern and counting
+	 * its matches.
+	 */
+	public synchronized void recordPattern(String pattern, long matcherNanos, int matches) {
+		patterns.add(new PatternStatistics(pattern, matcherNanos, matches));
+	}
+
+	/**
+	 * Records a rendered block and the time spent on writing its file, zero if
+	 * it was not written.
+	 */
+	public void recordBlock(String path, long renderNanos, long writeNanos) {
+		blocks.incrementAndGet();
+		this.renderNanos.addAndGet(renderNanos);
+		this.writeNanos.addAndGet(writeNanos);
+		synchronized (slowestBlocks) {
+			if (slowestBlocks.size() < SLOWEST_BLOCKS || slowestBlocks.peek().renderNanos < renderNanos) {
+				slowestBlocks.add(new BlockStatistics(path, renderNanos));
+				if (slowestBlocks.size() > SLOWEST_BLOCKS)
+					slowestBlocks.poll();
+			}
+		}
+	}
+
+	/**
+	 * Records a generated file written by the code outlet, with the number of
+	 * bytes written; files left unchanged by the outlet are not recorded.
+	 */
+	public void recordFileWritten(long bytes) {
+		filesWritten.incrementAndGet();
+		bytesWritten.addAndGet(bytes);
+	}
+
+	public void recordPackageFiles(int count) {
+		packageFiles.addAndGet(count);
+	}
+
+	public synchronized void recordCheckFailure(String category) {
+		checkFailures.merge(category, 1, Integer::sum);
+	}
+
+	public synchronized void recordNameCollisions(int count) {
+		nameCollisions = count;
+	}
+
+	public synchronized void recordImportCycles(int count) {
+		importCycles = count;
+	}
+
+	public synchronized int getCheckFailureCount() {
+		return checkFailures.values().stream().mapToInt(Integer::intValue).sum();
+	}
+
+	public long getFilesWritten() {
+		return filesWritten.get();
+	}
+
+	public long getBytesWritten() {
+		return bytesWritten.get();
+	}
+
+	/**
+	 * Writes the statistics as a JSON object, replacing the given file.
+	 */
+	public void writeJson(File file) throws IOException {
+		Files.write(file.toPath(), toJson().getBytes(StandardCharsets.UTF_8));
+	}
+
+	public synchronized String toJson() {
+		StringBuilder json = new StringBuilder("{\n");
+		json.append("  \"phases\": {");
+		String separator = "\n";
+		for (Map.Entry<String, Long> phase : phaseNanos.entrySet()) {
+			json.append(separator).append("    ").append(quote(phase.getKey())).append(": ").append(millis(phase.getValue()));
+			separator = ",\n";
+		}
+		json.append("\n  },\n");
+		json.append("  \"patterns\": [");
+		separator = "\n";
+		for (PatternStatistics pattern : patterns) {
+			json.append(separator).append("    {\"name\": ").append(quote(pattern.name))
+					.append(", \"matcherMillis\": ").append(millis(pattern.matcherNanos))
+					.append(", \"matches\": ").append(pattern.matches).append('}');
+			separator = ",\n";
+		}
+		json.append("\n  ],\n");
+		json.append("  \"blocks\": {\n");
+		json.append("    \"count\": ").append(blocks.get()).append(",\n");
+		json.append("    \"renderMillis\": ").append(millis(renderNanos.get())).append(",\n");
+		json.append("    \"meanRenderMillis\": ").append(millis(getMeanRenderNanos())).append(",\n");
+		json.append("    \"writeMillis\": ").append(millis(writeNanos.get())).append(",\n");
+		json.append("    \"slowest\": [");
+		separator = "\n";
+		for (BlockStatistics block : getSlowestBlocks()) {
+			json.append(separator).append("      {\"path\": ").append(quote(block.path))
+					.append(", \"renderMillis\": ").append(millis(block.renderNanos)).append('}');
+			separator = ",\n";
+		}
+		json.append("\n    ]\n  },\n");
+		json.append("  \"output\": {\n");
+		json.append("    \"filesWritten\": ").append(filesWritten.get()).append(",\n");
+		json.append("    \"bytesWritten\": ").append(bytesWritten.get()).append(",\n");
+		json.append("    \"packageFiles\": ").append(packageFiles.get()).append("\n  },\n");
+		json.append("  \"checkFailures\": {");
+		separator = "\n";
+		for (Map.Entry<String, Integer> failure : checkFailures.entrySet()) {
+			json.append(separator).append("    ").append(quote(failure.getKey())).append(": ").append(failure.getValue());
+			separator = ",\n";
+		}
+		json.append("\n  },\n");
+		json.append("  \"nameCollisions\": ").append(nameCollisions).append(",\n");
+		json.append("  \"importCycles\": ").append(importCycles).append("\n}\n");
+		return json.toString();
+	}
+
+	/**
+	 * Prints the phases, the output size and the problems in a few lines.
+	 */
+	public synchronized void printSummary(PrintStream out) {
+		StringBuilder phases = new StringBuilder("Phases:");
+		phaseNanos.forEach((phase, nanos) -> phases.append(' ').append(phase).append(' ').append(millis(nanos)).append(" ms,"));
+		phases.setLength(phases.length() - 1);
+		out.println(phases);
+		out.println(String.format(
+				"Blocks: %d rendered in %s ms (%s ms per block), written in %s ms; %d files, %d bytes, %d package files",
+				blocks.get(), millis(renderNanos.get()), millis(getMeanRenderNanos()), millis(writeNanos.get()),
+				filesWritten.get(), bytesWritten.get(), packageFiles.get()));
+		out.println(String.format("Problems: %d failed checks %s, %d elements with ambiguous names, %d import cycles",
+				getCheckFailureCount(), checkFailures, nameCollisions, importCycles));
+		List<BlockStatistics> slowest = getSlowestBlocks();
+		if (!slowest.isEmpty()) {
+			BlockStatistics block = slowest.get(0);
+			out.println(String.format("Slowest block: %s rendered in %s ms", block.path, millis(block.renderNanos)));
+		}
+	}
+
+	private long getMeanRenderNanos() {
+		long count = blocks.get();
+		return count == 0 ? 0 : renderNanos.get() / count;
+	}
+
+	private List<BlockStatistics> getSlowestBlocks() {
+		List<BlockStatistics> slowest;
+		synchronized (slowestBlocks) {
+			slowest = new ArrayList<>(slowestBlocks);
+		}
+		slowest.sort(Comparator.comparingLong((BlockStatistics block) -> block.renderNanos).reversed());
+		return slowest;
+	}
+
+	private static String millis(long nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+	}
+
+	private static String quote(String string) {
+		StringBuilder quoted = new StringBuilder("\"");
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (c == '"' || c == '\\') {
+				quoted.append('\\').append(c);
+			} else if (c < 0x20) {
+				quoted.append(String.format("\\u%04x", (int) c));
+			} else {
+				quoted.append(c);
+			}
+		}
+		return quoted.append('"').toString();
+	}
+}
@@ -14,7 +14,6 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import org.eclipse.xtext.xbase.lib.Pure;
 
@@ -33,8 +32,11 @@ public class CodegenUtil {
 			// (to split off abbreviatION|s)
 			Pattern.compile("[^a-zA-Z0-9]|(?<![A-Z])(?=[A-Z])|(?<=[A-Z][A-Z])(?![A-Z])");
 
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
 	public static final String V4MD_PREFIX = "_v4md";
 	public static final String V4MD_FIELD_PREFIX = V4MD_PREFIX+ "_field_";
+	public static final String V4MD_PART_PREFIX = V4MD_PREFIX+ "_part_";
 	public static final Set<String> RESERVED = new HashSet<String>(Arrays.asList(
 			// Python keywords in v3.7
 			"False", "None", "True", "and", "as", "assert", "async", "await", "break", "class", "continue", "def",
@@ -64,17 +66,147 @@ public class CodegenUtil {
 			"super", "tuple", "type", "vars", "zip"
 	));
 
+	/**
+	 * {@link #RESERVED} in the order of {@link String#compareTo(String)}, for
+	 * the lookup of names still in the buffer of {@link #mangleName(String)}.
+	 */
+	private static final String[] RESERVED_SORTED = RESERVED.stream().sorted().toArray(String[]::new);
+
+	/**
+	 * Reusable output buffer of {@link #mangleName(String)}, one per thread.
+	 */
+	private static final ThreadLocal<StringBuilder> MANGLE_BUFFER = ThreadLocal.withInitial(StringBuilder::new);
+
+	/**
+	 * Mangles a UML name into a Python identifier: the name is split into segments
+	 * as described at {@link #SEPARATORS}, the first letter of each segment that
+	 * is not all-caps is lower cased and the segments are joined with '_'.
+	 * <p>
+	 * The name is scanned once into a reusable buffer; the result is the same as
+	 * splitting it with {@link #SEPARATORS}.
+	 */
 	@Pure
 	public static String mangleName(String umlName) {
-		String joined = SEPARATORS.splitAsStream(umlName).filter((seg) -> !seg.isEmpty()).map(
-				(seg) -> seg.equals(seg.toUpperCase()) ? seg /* skip lower casing all-caps abbreviations, e.g. UML */
-						: Character.toLowerCase(seg.charAt(0)) + seg.substring(1))
-				.collect(Collectors.joining("_"));
+		StringBuilder buffer = MANGLE_BUFFER.get();
+		buffer.setLength(0);
+		int segmentStart = -1;
+		for (int i = 0; i < umlName.length(); i++) {
+			char c = umlName.charAt(i);
+			if (!isAsciiLetterOrDigit(c)) {
+				if (segmentStart >= 0) {
+					appendSegment(buffer, umlName, segmentStart, i);
+					segmentStart = -1;
+				}
+			} else if (segmentStart < 0) {
+				segmentStart = i;
+			} else if (isSegmentBoundary(umlName, i)) {
+				appendSegment(buffer, umlName, segmentStart, i);
+				segmentStart = i;
+			}
+		}
+		if (segmentStart >= 0) {
+			appendSegment(buffer, umlName, segmentStart, umlName.length());
+		}
 
 		// Prefix if prefix or entire string is not permitted
-		while (joined.isEmpty() || RESERVED.contains(joined) || Character.isDigit(joined.charAt(0)) || joined.startsWith(V4MD_PREFIX))
-			joined = "_" + joined;
-			
-		return joined;
+		while (buffer.length() == 0 || isReserved(buffer) || Character.isDigit(buffer.charAt(0)) || startsWith(buffer, V4MD_PREFIX))
+			buffer.insert(0, '_');
+
+		return buffer.toString();
+	}
+
+	private static boolean startsWith(CharSequence name, String prefix) {
+		if (name.length() < prefix.length())
+			return false;
+		for (int i = 0; i < prefix.length(); i++) {
+			if (name.charAt(i) != prefix.charAt(i))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Whether the name is in {@link #RESERVED}, looked up without creating a
+	 * String of the name.
+	 */
+	private static boolean isReserved(CharSequence name) {
+		String[] reserved = RESERVED_SORTED;
+		int low = 0;
+		int high = reserved.length - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int comparison = compare(reserved[middle], name);
+			if (comparison < 0) {
+				low = middle + 1;
+			} else if (comparison > 0) {
+				high = middle - 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int compare(String a, CharSequence b) {
+		int length = Math.min(a.length(), b.length());
+		for (int i = 0; i < length; i++) {
+			if (a.charAt(i) != b.charAt(i))
+				return a.charAt(i) - b.charAt(i);
+		}
+		return a.length() - b.length();
+	}
+
+	/**
+	 * Whether a segment ends before the given letter or digit, whose preceding
+	 * character is a letter or digit as well.
+	 */
+	private static boolean isSegmentBoundary(String name, int index) {
+		boolean upper = isAsciiUpperCase(name.charAt(index));
+		boolean previousUpper = isAsciiUpperCase(name.charAt(index - 1));
+		if (upper) {
+			// camel|Cases and abbreviat|IONs
+			return !previousUpper;
+		} else {
+			// abbreviatION|s
+			return previousUpper && index >= 2 && isAsciiUpperCase(name.charAt(index - 2));
+		}
+	}
+
+	private static void appendSegment(StringBuilder buffer, String name, int start, int end) {
+		if (buffer.length() > 0) {
+			buffer.append('_');
+		}
+		boolean hasLowerCase = false;
+		for (int i = start; i < end && !hasLowerCase; i++) {
+			char c = name.charAt(i);
+			hasLowerCase = c >= 'a' && c <= 'z';
+		}
+		if (hasLowerCase) {
+			buffer.append(Character.toLowerCase(name.charAt(start)));
+			buffer.append(name, start + 1, end);
+		} else {
+			// skip lower casing all-caps abbreviations, e.g. UML
+			buffer.append(name, start, end);
+		}
+	}
+
+	private static boolean isAsciiUpperCase(char c) {
+		return c >= 'A' && c <= 'Z';
+	}
+
+	private static boolean isAsciiLetterOrDigit(char c) {
+		return (c >= 'a' && c <= 'z') || isAsciiUpperCase(c) || (c >= '0' && c <= '9');
+	}
+
+	/**
+	 * Lower case hexadecimal representation of the given bytes, e.g. of a content hash.
+	 */
+	public static String toHex(byte[] bytes) {
+		char[] hex = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			hex[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+			hex[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+		}
+		return new String(hex);
 	}
 }
@@ -0,0 +1,126 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen
+
+import java.util.Set
+
+/**
+ * Emits a C++ header with a class skeleton per block below the cpp directory of the code outlet,
+ * mirroring the structure of the generated Python classes:
+ * parts are members, ports are pointers set through setters delegating to the ports of parts,
+ * and assembly connectors are wired in the constructor.
+ * Headers include each other relative to the cpp directory.
+ */
+class CppEmitter implements CodeEmitter {
+	public static val NAME = "cpp"
+	/**
+	 * To be changed whenever {@link #genBlockCode} changes.
+	 */
+	public static val VERSION = "1"
+
+	static val String ROOT_DIRECTORY = "cpp"
+	static val Set<String> KEYWORDS = #{
+		"alignas", "alignof", "and", "and_eq", "asm", "auto", "bitand", "bitor", "bool", "break", "case", "catch",
+		"char", "char16_t", "char32_t", "class", "compl", "const", "constexpr", "const_cast", "continue",
+		"decltype", "default", "delete", "do", "double", "dynamic_cast", "else", "enum", "explicit", "export",
+		"extern", "false", "float", "for", "friend", "goto", "if", "inline", "int", "long", "mutable", "namespace",
+		"new", "noexcept", "not", "not_eq", "nullptr", "operator", "or", "or_eq", "private", "protected", "public",
+		"register", "reinterpret_cast", "return", "short", "signed", "sizeof", "static", "static_assert",
+		"static_cast", "struct", "switch", "template", "this", "thread_local", "throw", "true", "try", "typedef",
+		"typeid", "typename", "union", "unsigned", "using", "virtual", "void", "volatile", "wchar_t", "while",
+		"xor", "xor_eq"
+	}
+
+	override getName() {
+		return NAME
+	}
+
+	override getVersion() {
+		return VERSION
+	}
+
+	override String getBlockFilePath(CodegenBlock.Ref ref) {
+		return ROOT_DIRECTORY + "/" + ref.genIncludePath
+	}
+
+	override renderBlock(CodegenBlock block) {
+		return block.genBlockCode
+	}
+
+	def genBlockCode(CodegenBlock block) '''
+		#pragma once
+
+		«FOR imported : block.imports»
+			#include "«imported.genIncludePath»"
+		«ENDFOR»
+
+		«block.ref.genNamespaceBegin»
+		/**
+		 * Class automatically generated by V4MD example code generator.
+		 * Derived from «block.humanName».
+		 */
+		class «block.name.cppName» {
+		public:
+			«FOR part : block.parts»
+				«part.type.genQualifiedName» «part.name.cppName»;
+			«ENDFOR»
+
+			«block.name.cppName»() {
+				«FOR conn : block.assemblies»
+					«conn.first.genPortSetter("&" + conn.second.genPathToPortOwner)»;
+					«conn.second.genPortSetter("&" + conn.first.genPathToPortOwner)»;
+				«ENDFOR»
+			}
+			«FOR port : block.ports»
+
+				void* get_«port.name»() const {
+					return «CodegenUtil.V4MD_FIELD_PREFIX»«port.name»;
+				}
+
+				void set_«port.name»(void* value) {
+					«CodegenUtil.V4MD_FIELD_PREFIX»«port.name» = value;
+					if (value) {
+						«FOR target : port.delegationTargets»
+							«target.genPortSetter("value")»;
+						«ENDFOR»
+					}
+				}
+			«ENDFOR»
+
+		private:
+			«FOR port : block.ports»
+				void* «CodegenUtil.V4MD_FIELD_PREFIX»«port.name» = nullptr;
+			«ENDFOR»
+		};
+		«block.ref.genNamespaceEnd»
+	'''
+
+	def String genIncludePath(CodegenBlock.Ref ref) {
+		return ref.pathSteps.map[cppName].join("/") + ".hpp"
+	}
+
+	def String genQualifiedName(CodegenBlock.Ref ref) {
+		return ref.pathSteps.map["::" + cppName].join
+	}
+
+	def String genNamespaceBegin(CodegenBlock.Ref ref) {
+		return ref.pathSteps.take(ref.pathSteps.size - 1).map["namespace " + cppName + " {"].join(" ")
+	}
+
+	def String genNamespaceEnd(CodegenBlock.Ref ref) {
+		return ref.pathSteps.take(ref.pathSteps.size - 1).map["}"].join(" ")
+	}
+
+	def String genPathToPortOwner(CodegenBlock.EndPath end) {
+		return "(*this)" + end.ownerPath.map["." + cppName].join
+	}
+
+	def String genPortSetter(CodegenBlock.EndPath end, String value) {
+		return end.genPathToPortOwner + ".set_" + end.portName + "(" + value + ")"
+	}
+
+	/**
+	 * The mangled name, suffixed by '_' if it is a C++ keyword.
+	 */
+	def String cppName(String mangledName) {
+		return if (KEYWORDS.contains(mangledName)) mangledName + "_" else mangledName
+	}
+}
@@ -0,0 +1,149 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Outlet that writes nothing, but compares the generated files with the files
+ * below a root directory and reports what a real run would change.
+ * <p>
+ * A generated file is encoded as {@link FileSystemCodeOutlet} would write it
+ * and compared with the existing one by size first, then chunk by chunk,
+ * stopping at the first difference; only changed files are read entirely, and
+ * only if a unified diff is requested. Existing files that are not generated
+ * (except for the manifest of {@link WriteAvoidingCodeOutlet}) are reported as
+ * removed when the outlet is closed. Files may be compared from several
+ * threads.
+ */
+public class DryRunCodeOutlet implements CodeOutlet {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+	private enum Change {
+		ADDED("A"), CHANGED("M"), REMOVED("D");
+
+		private final String mark;
+
+		Change(String mark) {
+			this.mark = mark;
+		}
+	}
+
+	private final File root;
+	private final PrintStream diff;
+	private final Set<String> generatedPaths = ConcurrentHashMap.newKeySet();
+	private final Map<String, Change> changes = new ConcurrentSkipListMap<>();
+	private final Map<String, String> diffs = new ConcurrentSkipListMap<>();
+
+	/**
+	 * @param diff
+	 *            the stream to print the unified diff of the changes to, or
+	 *            null to print the changed paths to the standard output only;
+	 *            not closed by the outlet
+	 */
+	public DryRunCodeOutlet(File root, PrintStream diff) {
+		this.root = root;
+		this.diff = diff;
+	}
+
+	@Override
+	public void writeFile(String path, String content) throws IOException {
+		generatedPaths.add(path);
+		File file = resolve(path);
+		if (!file.isFile()) {
+			record(path, Change.ADDED, null, content);
+		} else if (!hasContent(file, FileSystemCodeOutlet.encode(content))) {
+			record(path, Change.CHANGED, file, content);
+		}
+	}
+
+	@Override
+	public void ensureFile(String path) throws IOException {
+		generatedPaths.add(path);
+		if (!resolve(path).exists())
+			record(path, Change.ADDED, null, "");
+	}
+
+	@Override
+	public void deleteFile(String path) throws IOException {
+		generatedPaths.remove(path);
+		File file = resolve(path);
+		if (file.isFile())
+			record(path, Change.REMOVED, file, null);
+	}
+
+	/**
+	 * Reports the existing files that were not generated, then prints the
+	 * changes.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (root.isDirectory()) {
+			Path rootPath = root.toPath();
+			try (Stream<Path> paths = Files.walk(rootPath)) {
+				for (Path file : paths.filter(Files::isRegularFile).collect(Collectors.toList())) {
+					String path = rootPath.relativize(file).toString().replace(File.separatorChar, '/');
+					if (!generatedPaths.contains(path) && !path.equals(WriteAvoidingCodeOutlet.MANIFEST_FILE_NAME))
+						record(path, Change.REMOVED, file.toFile(), null);
+				}
+			}
+		}
+		if (diff != null) {
+			diffs.values().forEach(diff::print);
+			diff.flush();
+		} else {
+			changes.forEach((path, change) -> System.out.println(change.mark + " " + path));
+		}
+		Map<Change, Long> counts = changes.values().stream()
+				.collect(Collectors.groupingBy(change -> change, Collectors.counting()));
+		System.out.println(String.format("Dry run: %d files added, %d changed, %d removed, %d unchanged",
+				counts.getOrDefault(Change.ADDED, 0L), counts.getOrDefault(Change.CHANGED, 0L),
+				counts.getOrDefault(Change.REMOVED, 0L), generatedPaths.size() - counts.getOrDefault(Change.ADDED, 0L)
+						- counts.getOrDefault(Change.CHANGED, 0L)));
+	}
+
+	private void record(String path, Change change, File existingFile, String newContent) throws IOException {
+		changes.put(path, change);
+		if (diff != null) {
+			String oldContent = existingFile == null ? null
+					: new String(Files.readAllBytes(existingFile.toPath()), Charset.defaultCharset());
+			diffs.put(path, UnifiedDiff.diff(path, oldContent, newContent));
+		}
+	}
+
+	private static boolean hasContent(File file, byte[] content) throws IOException {
+		if (file.length() != content.length)
+			return false;
+		byte[] buffer = BUFFERS.get();
+		try (InputStream in = Files.newInputStream(file.toPath())) {
+			int offset = 0;
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				if (offset + read > content.length)
+					return false;
+				for (int i = 0; i < read; i++) {
+					if (buffer[i] != content[offset + i])
+						return false;
+				}
+				offset += read;
+			}
+			return offset == content.length;
+		}
+	}
+
+	private File resolve(String path) {
+		return new File(root, path);
+	}
+}
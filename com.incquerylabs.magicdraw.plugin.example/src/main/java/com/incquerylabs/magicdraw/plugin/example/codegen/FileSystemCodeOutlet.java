@@ -0,0 +1,137 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes generated files below a root directory of the file system.
+ * <p>
+ * Files are encoded once and written through NIO channels from a reusable
+ * direct buffer of each writing thread, so no buffer is allocated per file;
+ * the encoded bytes are still copied into that buffer.
+ * Each directory is created at most once per outlet.
+ */
+public class FileSystemCodeOutlet implements CodeOutlet {
+
+	private static final int BUFFER_SIZE = 1 << 20;
+	private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal
+			.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+	protected final File root;
+	private final Set<File> createdDirectories = ConcurrentHashMap.newKeySet();
+	private volatile CodegenStatistics statistics = null;
+
+	public FileSystemCodeOutlet(File root) {
+		this.root = root;
+	}
+
+	public File getRoot() {
+		return root;
+	}
+
+	@Override
+	public void writeFile(String path, String content) throws IOException {
+		byte[] bytes = encode(content);
+		writeBytes(path, bytes);
+		recordFileWritten(bytes.length);
+	}
+
+	@Override
+	public void setStatistics(CodegenStatistics statistics) {
+		this.statistics = statistics;
+	}
+
+	@Override
+	public void createDirectories(Collection<String> paths) throws IOException {
+		for (String path : paths) {
+			File directory = resolve(path);
+			if (createdDirectories.add(directory) && !directory.mkdirs() && !directory.isDirectory())
+				throw new IOException("Cannot create directory " + directory);
+		}
+	}
+
+	@Override
+	public void ensureFile(String path) throws IOException {
+		File file = resolve(path);
+		createParentDirectory(file);
+		file.createNewFile();
+	}
+
+	@Override
+	public void deleteFile(String path) throws IOException {
+		File file = resolve(path);
+		if (file.delete()) {
+			deleteEmptyParents(file);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+	}
+
+	protected void writeBytes(String path, byte[] content) throws IOException {
+		File file = resolve(path);
+		createParentDirectory(file);
+		ByteBuffer buffer = BUFFERS.get();
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			for (int offset = 0; offset < content.length; offset += buffer.capacity()) {
+				buffer.clear();
+				buffer.put(content, offset, Math.min(buffer.capacity(), content.length - offset));
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reports a generated file written by the outlet to the statistics, if
+	 * any.
+	 */
+	protected void recordFileWritten(long bytes) {
+		CodegenStatistics statistics = this.statistics;
+		if (statistics != null)
+			statistics.recordFileWritten(bytes);
+	}
+
+	/**
+	 * Deletes the directories containing the given (deleted) file, up to the
+	 * root, as long as they are empty.
+	 */
+	protected void deleteEmptyParents(File file) {
+		File parent = file.getParentFile();
+		while (parent != null && !parent.equals(root)) {
+			String[] children = parent.list();
+			if (children == null || children.length > 0 || !parent.delete())
+				return;
+			createdDirectories.remove(parent);
+			parent = parent.getParentFile();
+		}
+	}
+
+	private void createParentDirectory(File file) {
+		File parent = file.getParentFile();
+		if (createdDirectories.add(parent))
+			parent.mkdirs();
+	}
+
+	protected File resolve(String path) {
+		return new File(root, path);
+	}
+
+	/**
+	 * Generated files are written in the platform encoding.
+	 */
+	protected static byte[] encode(String content) {
+		return content.getBytes(Charset.defaultCharset());
+	}
+}
@@ -0,0 +1,275 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The port assignments of the generated objects, with the delegation and
+ * assembly chains resolved at generation time.
+ * <p>
+ * In the generated code, setting a port delegates the value to the ports of
+ * parts, which delegate it further down the composition tree at runtime. Here
+ * these chains are followed once over the snapshots of a run: the wires of a
+ * block are the port fields set by the assemblies of the block itself, in the
+ * order the cascading setters would set them, including the fields of the
+ * ports the assembled ports delegate to. The table of a top-level block, one
+ * not used as a part type in the run, also inlines the wires of its whole
+ * composition tree, so that its objects are wired in a single pass; the
+ * blocks used as parts keep tables of their own assemblies only, so the code
+ * grows with the composition tree of the top-level blocks alone.
+ * <p>
+ * A port whose owner is not a part with a block of the run as type is set
+ * through its setter, which delegates the value at runtime. The wires and
+ * delegation closures of all blocks are computed by the constructor, so that
+ * they can be read from several threads.
+ */
+public class FlattenedWiring {
+
+	/**
+	 * A port reached by a value, relative to the object the value is set on.
+	 */
+	public static class Target {
+		private final CodegenBlock.EndPath end;
+		private final boolean throughSetter;
+
+		public Target(CodegenBlock.EndPath end, boolean throughSetter) {
+			this.end = end;
+			this.throughSetter = throughSetter;
+		}
+
+		public CodegenBlock.EndPath getEnd() {
+			return end;
+		}
+
+		/**
+		 * Whether the port must be set through its setter instead of its
+		 * field, as its delegations are not known at generation time.
+		 */
+		public boolean isThroughSetter() {
+			return throughSetter;
+		}
+
+		@Override
+		public String toString() {
+			return end.getDottedPortPath() + (throughSetter ? "(setter)" : "");
+		}
+	}
+
+	/**
+	 * Assignment of the object at the value path to the port at the target,
+	 * both relative to the constructed object.
+	 */
+	public static class Wire {
+		private final Target target;
+		private final List<String> valuePath;
+		private String dottedValuePath;
+
+		public Wire(Target target, List<String> valuePath) {
+			this.target = target;
+			this.valuePath = valuePath;
+		}
+
+		public Target getTarget() {
+			return target;
+		}
+
+		public List<String> getValuePath() {
+			return valuePath;
+		}
+
+		/**
+		 * The value path with each step prefixed by '.'; empty for the
+		 * constructed object itself.
+		 */
+		public String getDottedValuePath() {
+			if (dottedValuePath == null)
+				dottedValuePath = new CodegenBlock.EndPath(valuePath, "").getDottedOwnerPath();
+			return dottedValuePath;
+		}
+
+		@Override
+		public String toString() {
+			return target + "=" + getDottedValuePath();
+		}
+	}
+
+	private final Map<String, CodegenBlock> blocks = new HashMap<>();
+	private final Set<String> partTypes = new HashSet<>();
+	private final Map<String, List<Wire>> wires = new HashMap<>();
+	private final Map<String, List<Wire>> treeWires = new HashMap<>();
+	private final Map<String, List<Target>> delegationClosures = new HashMap<>();
+	private final Set<String> inProgress = new HashSet<>();
+
+	public FlattenedWiring(Collection<CodegenBlock> blocks) {
+		for (CodegenBlock block : blocks) {
+			this.blocks.put(block.getRef().getQualifiedName(), block);
+			for (CodegenBlock.Part part : block.getParts()) {
+				partTypes.add(part.getType().getQualifiedName());
+			}
+		}
+		for (CodegenBlock block : blocks) {
+			computeWires(block);
+		}
+		for (CodegenBlock block : blocks) {
+			if (isTopLevel(block.getRef()))
+				computeTreeWires(block);
+			for (CodegenBlock.Port port : block.getPorts()) {
+				computeDelegationClosure(block, port.getName());
+			}
+		}
+	}
+
+	public boolean contains(CodegenBlock.Ref block) {
+		return blocks.containsKey(block.getQualifiedName());
+	}
+
+	/**
+	 * Whether the block is not the type of a part of a block of the run; the
+	 * objects of such a block are not constructed by generated code.
+	 */
+	public boolean isTopLevel(CodegenBlock.Ref block) {
+		return !partTypes.contains(block.getQualifiedName());
+	}
+
+	/**
+	 * The ports set by the assemblies of the block once its parts are
+	 * constructed, in order; a later wire may overwrite an earlier one.
+	 */
+	public List<Wire> getWires(CodegenBlock.Ref block) {
+		return checkContains(wires.get(block.getQualifiedName()), block);
+	}
+
+	/**
+	 * The ports set by the assemblies of a top-level block and of its nested
+	 * parts with blocks of the run as types, in the order the parts would wire
+	 * themselves when constructed.
+	 */
+	public List<Wire> getTreeWires(CodegenBlock.Ref block) {
+		if (!isTopLevel(block))
+			throw new IllegalStateException(block.getQualifiedName() + " is used as a part type");
+		return checkContains(treeWires.get(block.getQualifiedName()), block);
+	}
+
+	/**
+	 * All ports, relative to an object of the block, that a value set to the
+	 * port of the block reaches through delegation.
+	 */
+	public List<Target> getDelegationClosure(CodegenBlock.Ref block, String portName) {
+		return checkContains(delegationClosures.get(block.getQualifiedName() + '.' + portName), block);
+	}
+
+	private static <T> T checkContains(T value, CodegenBlock.Ref block) {
+		if (value == null)
+			throw new IllegalStateException(block.getQualifiedName() + " is not a block of the flattened wiring");
+		return value;
+	}
+
+	private void computeWires(CodegenBlock block) {
+		List<Wire> result = new ArrayList<>();
+		for (CodegenBlock.Assembly conn : block.getAssemblies()) {
+			addAssignment(result, block, conn.getFirst(), conn.getSecond().getOwnerPath());
+			addAssignment(result, block, conn.getSecond(), conn.getFirst().getOwnerPath());
+		}
+		wires.put(block.getRef().getQualifiedName(), Collections.unmodifiableList(result));
+	}
+
+	private void addAssignment(List<Wire> result, CodegenBlock block, CodegenBlock.EndPath target,
+			List<String> valuePath) {
+		CodegenBlock owner = resolveOwner(block, target.getOwnerPath());
+		result.add(new Wire(new Target(target, owner == null), valuePath));
+		if (owner != null) {
+			for (Target delegated : computeDelegationClosure(owner, target.getPortName())) {
+				result.add(new Wire(prepend(target.getOwnerPath(), delegated), valuePath));
+			}
+		}
+	}
+
+	private List<Wire> computeTreeWires(CodegenBlock block) {
+		String key = block.getRef().getQualifiedName();
+		List<Wire> result = treeWires.get(key);
+		if (result != null)
+			return result;
+		if (!inProgress.add(key))
+			return Collections.emptyList();
+		result = new ArrayList<>();
+		for (CodegenBlock.Part part : block.getParts()) {
+			CodegenBlock type = blocks.get(part.getType().getQualifiedName());
+			if (type != null) {
+				// parts of other types wire themselves when constructed
+				List<String> prefix = Collections.singletonList(part.getName());
+				for (Wire wire : computeTreeWires(type)) {
+					result.add(new Wire(prepend(prefix, wire.getTarget()), prepend(prefix, wire.getValuePath())));
+				}
+			}
+		}
+		result.addAll(wires.get(key));
+		inProgress.remove(key);
+		result = Collections.unmodifiableList(result);
+		treeWires.put(key, result);
+		return result;
+	}
+
+	private List<Target> computeDelegationClosure(CodegenBlock block, String portName) {
+		String key = block.getRef().getQualifiedName() + '.' + portName;
+		List<Target> result = delegationClosures.get(key);
+		if (result != null)
+			return result;
+		if (!inProgress.add(key))
+			return Collections.emptyList();
+		result = new ArrayList<>();
+		for (CodegenBlock.Port port : block.getPorts()) {
+			if (port.getName().equals(portName)) {
+				for (CodegenBlock.EndPath target : port.getDelegationTargets()) {
+					CodegenBlock owner = resolveOwner(block, target.getOwnerPath());
+					result.add(new Target(target, owner == null));
+					if (owner != null) {
+						for (Target delegated : computeDelegationClosure(owner, target.getPortName())) {
+							result.add(prepend(target.getOwnerPath(), delegated));
+						}
+					}
+				}
+			}
+		}
+		inProgress.remove(key);
+		result = Collections.unmodifiableList(result);
+		delegationClosures.put(key, result);
+		return result;
+	}
+
+	/**
+	 * The type of the nested part at the path, the block itself for the empty
+	 * path; null if a step is not a part with a block of this run as type.
+	 */
+	private CodegenBlock resolveOwner(CodegenBlock block, List<String> path) {
+		CodegenBlock owner = block;
+		for (String step : path) {
+			CodegenBlock.Ref type = null;
+			for (CodegenBlock.Part part : owner.getParts()) {
+				if (part.getName().equals(step))
+					type = part.getType();
+			}
+			owner = type == null ? null : blocks.get(type.getQualifiedName());
+			if (owner == null)
+				return null;
+		}
+		return owner;
+	}
+
+	private static Target prepend(List<String> prefix, Target target) {
+		CodegenBlock.EndPath end = target.getEnd();
+		return new Target(new CodegenBlock.EndPath(prepend(prefix, end.getOwnerPath()), end.getPortName()),
+				target.isThroughSetter());
+	}
+
+	private static List<String> prepend(List<String> prefix, List<String> path) {
+		List<String> result = new ArrayList<>(prefix);
+		result.addAll(path);
+		return result;
+	}
+}
@@ -21,10 +21,17 @@ import com.nomagic.uml2.ext.magicdraw.compositestructures.mdinternalstructures.C
 import com.nomagic.uml2.ext.magicdraw.compositestructures.mdinternalstructures.ConnectorEnd
 import com.nomagic.uml2.ext.magicdraw.compositestructures.mdports.Port
 import java.io.File
-import java.io.FileWriter
 import java.util.ArrayList
 import java.util.Collection
+import java.util.HashSet
+import java.util.IdentityHashMap
+import java.util.LinkedHashMap
+import java.util.LinkedHashSet
 import java.util.List
+import java.util.Map
+import java.util.concurrent.Callable
+import java.util.concurrent.ForkJoinPool
+import java.util.stream.Collectors
 import org.eclipse.viatra.query.runtime.api.ViatraQueryEngine
 
 import static com.incquerylabs.magicdraw.plugin.example.codegen.CodegenUtil.mangleName
@@ -38,67 +45,398 @@ class GenPython {
 	val String codeOutletRootPath
 	val List<String> pythonRootPackage
 	val Collection<Package> modelPackagesToGen
+	var int parallelism = 1
+	var long engineNanos = 0
+	var RenderCache renderCache = null
+	var CodeOutlet codeOutlet = null
+	var List<CodeEmitter> emitters = #[new PythonEmitter]
+	var MangledNameCollisionIndex collisionIndex = null
+	var CodegenQueries queries = null
+	var CodegenStatistics statistics = new CodegenStatistics
+	var BlockDependencyGraph dependencyGraph = null
+	val CodegenBlock.Ref rootPackageRef
+	val Map<PackageableElement, CodegenBlock.Ref> refs = new IdentityHashMap
+	val Map<ConnectorEnd, Pair<CodegenBlock.EndPath, List<String>>> endPaths = new IdentityHashMap
 	
 	new(ViatraQueryEngine queryEngine, String codeOutletRootPath, List<String> pythonRootPackage, Collection<Package> modelPackagesToGen) {
+		this(queryEngine, codeOutletRootPath, pythonRootPackage, modelPackagesToGen, new CodegenPatternLoader)
+	}
+	
+	/**
+	 * Creates a generator with a pattern loader that may already be prepared on the query engine by an earlier generator; 
+	 * the patterns are then neither parsed nor prepared again. The model must not have changed since.
+	 */
+	new(ViatraQueryEngine queryEngine, String codeOutletRootPath, List<String> pythonRootPackage, Collection<Package> modelPackagesToGen,
+		CodegenPatternLoader patternLoader) {
 		this.queryEngine = queryEngine
+		this.codegenControl = patternLoader
 		this.codeOutletRootPath = codeOutletRootPath
 		this.pythonRootPackage = pythonRootPackage
 		this.modelPackagesToGen = modelPackagesToGen
+		this.rootPackageRef = pythonRootPackage.fold(null as CodegenBlock.Ref)[ parent, step | new CodegenBlock.Ref(parent, step) ]
+	}
+	
+	/**
+	 * Sets the number of threads rendering and writing block files. 
+	 * With the default of 1, blocks are generated sequentially on the calling thread.
+	 */
+	def setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive: " + parallelism)
+		this.parallelism = parallelism
+	}
+	
+	/**
+	 * Sets the time spent creating the query engine before this generator, reported as the engine phase of each {@link #doCollect}.
+	 */
+	def setEngineNanos(long engineNanos) {
+		this.engineNanos = engineNanos
+	}
+	
+	/**
+	 * Enables reusing block code rendered by previous runs from the given directory. 
+	 */
+	def setRenderCacheDirectory(File renderCacheDirectory) {
+		this.renderCache = new RenderCache(renderCacheDirectory)
+	}
+	
+	/**
+	 * Sets where generated files are written; the outlet is not closed by {@link #doGen}.
+	 * By default, files are written to the code outlet root path.
+	 */
+	def setCodeOutlet(CodeOutlet codeOutlet) {
+		this.codeOutlet = codeOutlet
+		codeOutlet?.setStatistics(statistics)
+	}
+	
+	/**
+	 * Sets the emitters of the target languages, each generating a file from every block collected once. 
+	 * By default, only Python code is generated.
+	 */
+	def setEmitters(List<CodeEmitter> emitters) {
+		if (emitters.empty)
+			throw new IllegalArgumentException("At least one code emitter is needed")
+		this.emitters = emitters.immutableCopy
+	}
+	
+	def List<CodeEmitter> getEmitters() {
+		return emitters
+	}
+	
+	/**
+	 * Sets the index used by {@link #checkName}, e.g. one kept up to date by match update listeners.
+	 * By default, the index is built from the current matches on first use and rebuilt by each {@link #doGen}.
+	 */
+	def setCollisionIndex(MangledNameCollisionIndex collisionIndex) {
+		this.collisionIndex = collisionIndex
+	}
+	
+	def MangledNameCollisionIndex getCollisionIndex() {
+		if (collisionIndex === null)
+			collisionIndex = MangledNameCollisionIndex.build(getQueries.mangledNameCollision)
+		return collisionIndex
 	}
 		
-	val extension CodegenPatternLoader codegenControl = new CodegenPatternLoader()
-	val extension GenPythonHelper genPythonHelper = new GenPythonHelper()
+	val extension CodegenPatternLoader codegenControl
 
-	def doGen() {
-		init();
+	/**
+	 * The loader of the codegen patterns used by this generator; initialized by {@link #doGen}.
+	 */
+	def CodegenPatternLoader getPatternLoader() {
+		return codegenControl
+	}
+	
+	/**
+	 * The codegen patterns on the query engine of this generator; created on first use after the pattern loader is initialized.
+	 */
+	def CodegenQueries getQueries() {
+		if (queries === null)
+			queries = new CodegenQueries(codegenControl, queryEngine)
+		return queries
+	}
+
+	/**
+	 * The timings and counters of the last {@link #doCollect} and the following renders.
+	 */
+	def CodegenStatistics getStatistics() {
+		return statistics
+	}
+	
+	/**
+	 * The dependencies between the blocks of the last {@link #doRender}.
+	 */
+	def BlockDependencyGraph getDependencyGraph() {
+		return dependencyGraph
+	}
+
+	/**
+	 * Generates the files of all blocks in the packages to generate; returns the number of blocks.
+	 */
+	def int doGen() {
+		return doRender(doCollect)
+	}
+	
+	/**
+	 * Parses and prepares the codegen patterns and collects the snapshots of all blocks to generate. 
+	 * Afterwards, the blocks can be rendered by {@link #doRender} without the model and the query engine.
+	 */
+	def List<CodegenBlock> doCollect() {
+		val warmUpStart = System.nanoTime
+		resetMemoTables
+		statistics = new CodegenStatistics
+		statistics.recordPhaseNanos("engine", engineNanos)
+		codeOutlet?.setStatistics(statistics)
+		val reused = codegenControl.isPrepared(queryEngine)
+		if (!reused)
+			init();
+		var phaseStart = statistics.recordPhase("parse", warmUpStart)
+		// build all matchers at once, before the templates touch them one by one
+		if (!reused)
+			codegenControl.prepare(queryEngine)
+		phaseStart = statistics.recordPhase("prepare", phaseStart)
+		codegenControl.measure(queryEngine, statistics)
+		queries = new CodegenQueries(codegenControl, queryEngine)
+		collisionIndex = MangledNameCollisionIndex.build(queries.mangledNameCollision)
+		collisionIndex.report(System.err)
+		statistics.recordNameCollisions(collisionIndex.size)
+		val collectStart = statistics.recordPhase("matchers", phaseStart)
+		val blocks = collectBlocks
+		statistics.recordPhase("collect", collectStart)
+		println(String.format("Query warm-up: %d ms, collecting %d blocks: %d ms",
+			(collectStart - warmUpStart) / 1_000_000, blocks.size, (System.nanoTime - collectStart) / 1_000_000))
+		return blocks
+	}
+	
+	/**
+	 * Renders and writes the given blocks collected by {@link #doCollect}, possibly on another thread; 
+	 * returns the number of blocks.
+	 */
+	def int doRender(List<CodegenBlock> blocks) {
+		val renderStart = System.nanoTime
+		val ownCodeOutlet = codeOutlet === null
+		if (ownCodeOutlet)
+			codeOutlet = new FileSystemCodeOutlet(new File(codeOutletRootPath))
+		codeOutlet.setStatistics(statistics)
+		try {
+			// the import graph as a whole, with its cycles reported before any file is written
+			dependencyGraph = new BlockDependencyGraph(blocks)
+			dependencyGraph.report(System.err)
+			statistics.recordImportCycles(dependencyGraph.cycles.size)
+			emitters.forEach[prepare(blocks)]
+			val packagesStart = statistics.recordPhase("dependencies", renderStart)
+			blocks.materializePackages
+			val blocksStart = statistics.recordPhase("packages", packagesStart)
+			if (parallelism > 1) {
+				dependencyGraph.doGenBlockFilesInParallel.forEach[ System.out.println(it) ]
+			} else {
+				blocks.forEach[ System.out.println(doGenBlockFile(false)) ]
+			}
+			statistics.recordPhase("render", blocksStart)
+		} finally {
+			if (ownCodeOutlet) {
+				codeOutlet.close
+				codeOutlet = null
+			}
+		}
+		println(String.format("Rendering and writing %d blocks: %d ms", blocks.size, (System.nanoTime - renderStart) / 1_000_000))
+		if (renderCache !== null) {
+			val evicted = renderCache.cleanUp
+			println(String.format("Render cache: %d hits, %d misses, %d evicted", renderCache.hits, renderCache.misses, evicted))
+		}
+		return blocks.size
+	}
+	
+	/**
+	 * The number of problems found by the last {@link #doCollect}: elements with ambiguous names and failed checks.
+	 */
+	def int getErrorCount() {
+		return statistics.checkFailureCount + getCollisionIndex.size
+	}
+	
+	/**
+	 * Collects the snapshots of all blocks to generate, each block at most once. 
+	 * This is the only phase that reads the model and the query engine.
+	 */
+	def List<CodegenBlock> collectBlocks() {
+		val blocks = new LinkedHashMap<Class, CodegenBlock>
 		modelPackagesToGen.forEach[ pack |
-			queryEngine.blockToGen.getAllValuesOfblock(pack).forEach[ block |
-				if (block.checkName)
-					block.doGenBlockFile
-					System.out.println(block.genBlockCode)
+			getQueries.getBlocksToGen(pack).forEach[ block |
+				if (!blocks.containsKey(block))
+					blocks.put(block, block.collectBlock)
 			]
 		]
+		return new ArrayList(blocks.values)
+	}
+	
+	def CodegenBlock collectBlock(Class block) {
+		val nameValid = block.checkName
+		val imports = getQueries.getImportedBlocks(block).map[genRef].toList
+		val parts = getQueries.getMandatoryPartsToGen(block)
+			.filter[checkName && checkTypeIsBlock]
+			.map[ part | new CodegenBlock.Part(part.genName, (part.type as Class).genRef) ]
+			.toList
+		val assemblies = getQueries.getAssembliesToGen(block).map[ conn |
+			new CodegenBlock.Assembly(conn.end.get(0).collectEndPath, conn.end.get(1).collectEndPath)
+		].toList
+		val ports = getQueries.getPortsToGen(block)
+			.filter[checkName && checkTypeIsBlock]
+			.map[ port | 
+				val delegationTargets = getQueries.getDelegationTargets(port, block).map[collectEndPath].toList
+				new CodegenBlock.Port(port.genName, delegationTargets)
+			]
+			.toList
+		return new CodegenBlock(block, block.genRef, block.humanName, nameValid, imports, parts, assemblies, ports)
+	}
+	
+	/**
+	 * Resolves the path of a connector end once per run; problems found while resolving are reported the first time only.
+	 */
+	def CodegenBlock.EndPath collectEndPath(ConnectorEnd end) {
+		var resolved = endPaths.get(end)
+		if (resolved === null) {
+			val List<String> diagnostics = new ArrayList
+			val portRole = end.role
+			checkConnectableIsPort(portRole, diagnostics)
+			resolved = new CodegenBlock.EndPath(end.collectPathToPortOwner(diagnostics), portRole.genName) -> diagnostics
+			diagnostics.forEach[ System.err.println(it) ]
+			endPaths.put(end, resolved)
+		}
+		return resolved.key
+	}
+	
+	/**
+	 * The problems found while resolving the path of the connector end in this run.
+	 */
+	def List<String> getEndPathDiagnostics(ConnectorEnd end) {
+		return endPaths.get(end)?.value ?: emptyList
+	}
+	
+	private def List<String> collectPathToPortOwner(ConnectorEnd end, List<String> diagnostics) {
+		val propertyPaths = getQueries.getPropertyPaths(end)
+		if (propertyPaths.empty)
+			return emptyList
+		val propertyPathSlot = propertyPaths.head
+		propertyPathSlot.value
+			.filter(ElementValue)
+			.map[element]
+			.filter(Property)
+			.filter[checkPropertyIsPart(diagnostics)]
+			.map[genName]
+			.toList
+	}
+
+	/**
+	 * Generates the files of the blocks of the graph on the fork-join pool, level by level, 
+	 * so that the files of the blocks a block depends on are written before its own file, except within import cycles; 
+	 * returns the code of each block in the order of the levels.
+	 */
+	private def List<String> doGenBlockFilesInParallel(BlockDependencyGraph graph) {
+		val pool = new ForkJoinPool(parallelism)
+		try {
+			val code = new ArrayList<String>(graph.size)
+			for (level : graph.levels) {
+				val Callable<List<String>> task = [ level.parallelStream.map[doGenBlockFile(false)].collect(Collectors.toList) ]
+				code.addAll(pool.submit(task).get)
+			}
+			return code
+		} finally {
+			pool.shutdown
+		}
 	}
 
-	def doGenBlockFile(Class block) {
-		if (checkName(block)) {
-			val blockFilePath = block.genBlockFilePath.toString
-			println("generating " + blockFilePath)
-			
-			
-			val blockFile = new File(blockFilePath)
-			if (blockFile.exists) 
-				blockFile.delete
-			
-			blockFile.parentFile.mkdirs
-			blockFile.createNewFile
-			val blockFileWriter = new FileWriter(blockFile, false)
-			blockFileWriter.write(block.genBlockCode.toString)
-			blockFileWriter.close
-			
-			// ensure package is created
-			for (packagePath : block.genPackageFilePaths) {
-				val packageFile = new File(packagePath.toString)
-				//packageFile.parentFile.mkdirs
-				packageFile.createNewFile
+	/**
+	 * Creates the directories and package files (e.g. __init__.py) of all emitters for the given blocks, each exactly once, 
+	 * so that writing the block files needs no further package handling.
+	 */
+	def materializePackages(List<CodegenBlock> blocks) {
+		val directories = new HashSet<String>
+		val packageFiles = new LinkedHashSet<String>
+		var perBlockCalls = 0
+		for (block : blocks.filter[nameValid]) {
+			for (emitter : emitters) {
+				directories.add(emitter.getBlockFilePath(block.ref).parentPath)
+				val packageFilePaths = emitter.getPackageFilePaths(block.ref)
+				for (packageFile : packageFilePaths) {
+					if (packageFiles.add(packageFile))
+						directories.add(packageFile.parentPath)
+				}
+				// mkdirs for the block file, mkdirs and createNewFile for each package file
+				perBlockCalls += 1 + 2 * packageFilePaths.size
 			}
 		}
+		directories.remove("")
+		// a parent path is a prefix of its children's paths, thus sorted before them
+		codeOutlet.createDirectories(directories.sort)
+		for (packageFile : packageFiles) {
+			codeOutlet.ensureFile(packageFile)
+		}
+		statistics.recordPackageFiles(packageFiles.size)
+		println(String.format("Packages: %d directories and %d package files created once, %d redundant filesystem calls avoided", 
+			directories.size, packageFiles.size, perBlockCalls - directories.size - packageFiles.size))
 	}
 	
-	def boolean checkName(NamedElement element) {
-		val violation = queryEngine.mangledNameCollision.getOneArbitraryMatch(null, element, null)
-		if (violation.present) {
-			System.err.println(String.format(
-				"Mangled name ambiguity: name of %s is mangled to non-unique form %s, skipping code generation", 
-				element.humanName, violation.get.mangledName
-			))
-			return false
+	private static def String parentPath(String path) {
+		val separator = path.lastIndexOf('/')
+		return if (separator < 0) "" else path.substring(0, separator)
+	}
+
+	/**
+	 * Renders the block and writes its file if its name is valid; returns the rendered code.
+	 */
+	def String doGenBlockFile(CodegenBlock block) {
+		return block.doGenBlockFile(true)
+	}
+	
+	/**
+	 * Renders the block with each emitter and writes the files if its name is valid, ensuring the package files 
+	 * unless they were created by {@link #materializePackages}; returns the rendered code.
+	 */
+	def String doGenBlockFile(CodegenBlock block, boolean ensurePackages) {
+		val code = new StringBuilder
+		var renderNanos = 0L
+		var writeNanos = 0L
+		for (emitter : emitters.filter[rendersFile(block)]) {
+			val renderStart = System.nanoTime
+			val blockCode = block.renderBlockCode(emitter)
+			val writeStart = System.nanoTime
+			renderNanos += writeStart - renderStart
+			if (block.nameValid) {
+				val path = emitter.getBlockFilePath(block.ref)
+				println("generating " + codeOutletRootPath + "/" + path)
+				codeOutlet.writeFile(path, blockCode)
+				
+				if (ensurePackages) {
+					// ensure package is created
+					for (packagePath : emitter.getPackageFilePaths(block.ref)) {
+						codeOutlet.ensureFile(packagePath)
+					}
+				}
+			}
+			writeNanos += System.nanoTime - writeStart
+			code.append(blockCode)
 		}
-		return true
+		statistics.recordBlock(block.ref.filePath, renderNanos, writeNanos)
+		return code.toString
+	}
+	
+	def String renderBlockCode(CodegenBlock block, CodeEmitter emitter) {
+		if (renderCache === null)
+			return emitter.renderBlock(block).toString
+		return renderCache.computeIfAbsent(RenderCache.computeKey(block, emitter.getRenderCacheSalt(block))) [ 
+			emitter.renderBlock(block).toString
+		]
+	}
+	
+	/**
+	 * Whether the mangled name of the element is unique; the ambiguities are reported by {@link MangledNameCollisionIndex#report}.
+	 */
+	def boolean checkName(NamedElement element) {
+		return !getCollisionIndex.isColliding(element)
 	}
 	def boolean checkTypeIsBlock(TypedElement element) {
 		val type = element.type
 		if (type === null) {
+			statistics.recordCheckFailure("missingType")
 			System.err.println(String.format(
 				"Missing type for typed element %s", 
 				element.humanName
@@ -106,9 +444,10 @@ class GenPython {
 			return false
 		}
 		if (type instanceof Class) {
-			if (queryEngine.blockToGen.hasMatch(type, null)) {
+			if (getQueries.isBlockToGen(type)) {
 				return true
 			} else {
+				statistics.recordCheckFailure("typeNotGenerated")
 				System.err.println(String.format(
 					"Block %s as type of %s not possible to generate", 
 					type.humanName, element.humanName
@@ -116,6 +455,7 @@ class GenPython {
 				return false
 			}
 		} else {
+			statistics.recordCheckFailure("typeNotBlock")
 			System.err.println(String.format(
 				"Block type expected for typed element %s instead of %s", 
 				element.humanName, type.humanName
@@ -123,118 +463,55 @@ class GenPython {
 			return false
 		}
 	}
-	def boolean checkPropertyIsPart(Property property) {
-		if (queryEngine.mandatoryPartToGen.hasMatch(property, null)) {
+	def boolean checkPropertyIsPart(Property property, List<String> diagnostics) {
+		if (getQueries.isMandatoryPartToGen(property)) {
 			return true;
 		} else {
-			System.err.println(String.format(
+			statistics.recordCheckFailure("propertyNotPart")
+			diagnostics.add(String.format(
 				"Part property expected in property path instead of %s", 
 				property.humanName
 			))
 			return false
 		}
 	}
-	def boolean checkConnectableIsPort(ConnectableElement element) {
+	def boolean checkConnectableIsPort(ConnectableElement element, List<String> diagnostics) {
 		if (element instanceof Port) {
-			if (queryEngine.portToGen.hasMatch(element, null))
+			if (getQueries.isPortToGen(element))
 				return true;
 		}
-		System.err.println(String.format(
+		statistics.recordCheckFailure("endNotPort")
+		diagnostics.add(String.format(
 			"Port expected at the end of the property path instead of %s", 
 			element.humanName
 		))
 		return false
 	}
 		
-	def genBlockCode(Class block) '''
-	    «FOR imported: queryEngine.blockMustImport.getAllValuesOfimportedBlock(block)»
-	        import «imported.genPackageableElementPackageRef»
-	    «ENDFOR»
-	    class «block.genName»:
-	        """ 
-	            Class automatically generated by V4MD example code generator.
-	            Derived from «block.humanName».
-	            Refer to this Python class as «block.genPackageableElementRef»
-	        """
-	        
-	        def __init__(self):
-	            «FOR part : queryEngine.mandatoryPartToGen.getAllValuesOfpart(block)»
-	                «IF part.checkName && part.checkTypeIsBlock»
-	                    self.«part.genName» = «part.type.genPackageableElementRef»()
-	                «ENDIF»
-	            «ENDFOR»
-	            «FOR conn : queryEngine.assemblyToGen.getAllValuesOfconnector(block)»
-	                self«conn.end.get(0).genPathToPort» = self«conn.end.get(1).genPathToPortOwner»
-	                self«conn.end.get(1).genPathToPort» = self«conn.end.get(0).genPathToPortOwner»
-	            «ENDFOR»
-	            pass
-	        
-	        «FOR port : queryEngine.portToGen.getAllValuesOfport(block)»
-	            «IF port.checkName && port.checkTypeIsBlock»
-	                @property
-	                def «port.genName»(self):
-	                    return self.«CodegenUtil.V4MD_FIELD_PREFIX»«port.genName»
-	                
-	                @«port.genName».setter
-	                def «port.genName»(self, value):
-	                    self.«CodegenUtil.V4MD_FIELD_PREFIX»«port.genName» = value
-	                    if (value):
-	                        «FOR delegation : queryEngine.delegationToGen.getAllMatches(port, null, null, block)»
-	                        	self«(delegation.get("otherEnd") as ConnectorEnd).genPathToPort» = value
-	                        «ENDFOR»
-	                        pass
-	                        
-	            «ENDIF»
-	        «ENDFOR»
-	'''
-	
-	def genBlockFilePath(Class block) 
-		'''«codeOutletRootPath»/«block.genPackageableElementPathSteps.join('/')».py'''
-
-	def genPackageFilePaths(PackageableElement element) {
-		val steps = element.owningPackage.genPackageableElementPathSteps
-		return (1..steps.size).map[ prefixLength |
-			'''«codeOutletRootPath»/«steps.take(prefixLength).join('/')»/__init__.py'''
-		]
+	/**
+	 * Forgets the references and connector end paths memoized in this run; to be called whenever names in the model may have changed.
+	 */
+	def resetMemoTables() {
+		refs.clear
+		endPaths.clear
 	}
-
-
-	def CharSequence genPackageableElementRef(PackageableElement block) {
-		'''«block.genPackageableElementPackageRef».«block.genName»'''
-	} 
-	def CharSequence genPackageableElementPackageRef(PackageableElement block) {
-		return block.genPackageableElementPathSteps.join('.')
-	} 
 	
-	def List<String> genPackageableElementPathSteps(PackageableElement element) {
-		val accumulator = new ArrayList(pythonRootPackage)
-		element.genPackageableElementPathSteps(accumulator)
-		return accumulator
+	/**
+	 * Returns the reference of the element, memoized per run; references of elements in the same package share the reference of the package.
+	 */
+	def CodegenBlock.Ref genRef(PackageableElement element) {
+		var ref = refs.get(element)
+		if (ref === null) {
+			val owningPackage = element.owningPackage
+			ref = new CodegenBlock.Ref(if (owningPackage === null) rootPackageRef else owningPackage.genRef, element.genName)
+			refs.put(element, ref)
+		}
+		return ref
 	}
-	private def void genPackageableElementPathSteps(PackageableElement element, List<String> accumulator) {
-		element.owningPackage?.genPackageableElementPathSteps(accumulator)
-		accumulator.add(element.genName)
+	
+	def List<String> genPackageableElementPathSteps(PackageableElement element) {
+		return element.genRef.pathSteps
 	}
 	
 	def genName(NamedElement element) { mangleName(element.name) }
-	
-	def genPathToPortOwner(ConnectorEnd end) {
-		val propertyPaths = queryEngine.connectorEndNestedPath.getAllValuesOfpropertyPath(end)
-		if (propertyPaths.empty)
-			return ""
-		val propertyPathSlot = propertyPaths.head
-		propertyPathSlot.value
-			.filter(ElementValue)
-			.map[element]
-			.filter(Property)
-			.filter[checkPropertyIsPart]
-			.map['.'+genName]
-			.join
-
-	}
-	def genPathToPort(ConnectorEnd end) {
-		val portRole = end.role
-		checkConnectableIsPort(portRole)
-		return '''«end.genPathToPortOwner».«portRole.genName»'''
-	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,364 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.eclipse.viatra.query.runtime.api.AdvancedViatraQueryEngine;
+import org.eclipse.viatra.query.runtime.api.IMatchUpdateListener;
+import org.eclipse.viatra.query.runtime.api.IPatternMatch;
+import org.eclipse.viatra.query.runtime.api.ViatraQueryMatcher;
+
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Class;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Element;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Package;
+
+/**
+ * Keeps the Python code generated from a set of packages up to date with the
+ * model.
+ * <p>
+ * The generator listens to the match updates of the codegen patterns and
+ * records the blocks whose code may have changed. {@link #regenerate()} then
+ * regenerates only these blocks, deletes the files of blocks that are no longer
+ * generated and maintains the __init__.py files of their packages. When a
+ * block, one of its parts or ports, or one of its packages is renamed, the
+ * blocks depending on it are regenerated as well, including those whose
+ * connectors reach it through a path of parts; they are looked up in the
+ * {@link BlockDependencyGraph} of the generated blocks, which is rebuilt after
+ * each change.
+ * <p>
+ * {@link #start()}, {@link #regenerate()} and {@link #stop()} access the model
+ * and must be called where the model may be read; match updates may be
+ * received on any thread. {@link #regenerate()} may also be split into
+ * {@link #collectChanges()}, which reads the model, and {@link #write(Changes)},
+ * which may run on another thread, as may {@link #close()}.
+ */
+public class IncrementalGenPython {
+
+	private final AdvancedViatraQueryEngine engine;
+	private final Collection<Package> modelPackagesToGen;
+	private final GenPython gen;
+	private final CodeOutlet outlet;
+	private final MangledNameCollisionIndex collisions = new MangledNameCollisionIndex();
+
+	private final Set<Class> dirtyBlocks = new LinkedHashSet<>();
+	private final Set<Class> renamedBlocks = new LinkedHashSet<>();
+	private final Set<Package> renamedPackages = new LinkedHashSet<>();
+	private final Map<Class, CodegenBlock> generatedBlocks = new HashMap<>();
+	private final Map<String, Integer> packageFileReferences = new HashMap<>();
+	private final Map<ViatraQueryMatcher<IPatternMatch>, IMatchUpdateListener<IPatternMatch>> listeners = new LinkedHashMap<>();
+	private CodegenQueries queries;
+	private BlockDependencyGraph dependencyGraph = new BlockDependencyGraph(Collections.emptyList());
+	private boolean collisionsChanged = false;
+	private volatile Runnable changeListener = null;
+
+	public IncrementalGenPython(AdvancedViatraQueryEngine engine, String codeOutletRootPath,
+			List<String> pythonRootPackage, Collection<Package> modelPackagesToGen) {
+		this.engine = engine;
+		this.modelPackagesToGen = modelPackagesToGen;
+		this.gen = new GenPython(engine, codeOutletRootPath, pythonRootPackage, modelPackagesToGen);
+		this.outlet = new FileSystemCodeOutlet(new File(codeOutletRootPath));
+		gen.setCodeOutlet(outlet);
+		gen.setCollisionIndex(collisions);
+	}
+
+	/**
+	 * Sets the emitters of the target languages, by default Python only. As
+	 * only the blocks affected by a change are regenerated, emitters rendering
+	 * a block from other blocks are rejected: Python flat wiring and package
+	 * modules.
+	 */
+	public void setEmitters(List<CodeEmitter> emitters) {
+		for (CodeEmitter emitter : emitters) {
+			if (emitter instanceof PythonEmitter
+					&& (((PythonEmitter) emitter).isFlatWiring() || ((PythonEmitter) emitter).isPackageModules()))
+				throw new IllegalArgumentException(
+						"Flat wiring and package modules are not supported by incremental generation");
+		}
+		gen.setEmitters(emitters);
+	}
+
+	/**
+	 * Loads the codegen patterns and subscribes to their match updates. All
+	 * blocks in scope are marked dirty, so the first {@link #regenerate()}
+	 * generates everything.
+	 */
+	public void start() throws IOException, IllegalAccessException {
+		CodegenPatternLoader patterns = gen.getPatternLoader();
+		patterns.init();
+		patterns.prepare(engine);
+
+		queries = gen.getQueries();
+		listen(patterns.getBlockToGen(engine), true, match -> {
+			if (modelPackagesToGen.contains(match.get(1)))
+				markDirty(match.get(0));
+		});
+		listen(patterns.getPortToGen(engine), true, match -> markDirty(match.get(1)));
+		listen(patterns.getMandatoryPartToGen(engine), true, match -> markDirty(match.get(1)));
+		listen(patterns.getAssemblyToGen(engine), true, match -> markDirty(match.get(1)));
+		listen(patterns.getDelegationToGen(engine), true, match -> markDirty(match.get(3)));
+		listen(patterns.getConnectorEndNestedPath(engine), true, match -> {
+			// end -> connector -> block owning the connector
+			Element connector = ((Element) match.get(0)).getOwner();
+			if (connector != null)
+				markDirty(connector.getOwner());
+		});
+		listen(patterns.getMangledNameCollision(engine), true, match -> {
+			collisions.add(match);
+			markCollisionChanged(match);
+		}, match -> {
+			collisions.remove(match);
+			markCollisionChanged(match);
+		});
+		// renames only matter after the initial generation
+		listen(patterns.getMangledName(engine), false, match -> markRenamed(match.get(0)));
+		listen(patterns.getBlockMustImport(engine), true, match -> markDirty(match.get(0)));
+	}
+
+	/**
+	 * Unsubscribes from the match updates; the generated files are kept.
+	 * Changes collected before may still be written, then the generator is
+	 * closed by {@link #close()}.
+	 */
+	public void stop() {
+		listeners.forEach(engine::removeMatchUpdateListener);
+		listeners.clear();
+	}
+
+	/**
+	 * Closes the outlet of the generated files, after the last
+	 * {@link #write(Changes)}.
+	 */
+	public void close() throws IOException {
+		outlet.close();
+	}
+
+	/**
+	 * Sets the callback notified on the thread of the match update whenever a
+	 * block is marked for regeneration, e.g. to schedule the next
+	 * {@link #regenerate()}.
+	 */
+	public void setChangeListener(Runnable changeListener) {
+		this.changeListener = changeListener;
+	}
+
+	public synchronized boolean isDirty() {
+		return !dirtyBlocks.isEmpty();
+	}
+
+	/**
+	 * Regenerates the blocks affected by the model changes since the previous
+	 * call.
+	 *
+	 * @return the number of regenerated blocks
+	 */
+	public int regenerate() throws IOException {
+		return write(collectChanges());
+	}
+
+	/**
+	 * Snapshots of the blocks affected by model changes, collected by
+	 * {@link IncrementalGenPython#collectChanges()} and written by
+	 * {@link IncrementalGenPython#write(Changes)}.
+	 */
+	public static class Changes {
+		private final List<CodegenBlock> previousBlocks = new ArrayList<>();
+		private final List<CodegenBlock> currentBlocks = new ArrayList<>();
+		private List<CodegenBlock> generatedBlocks = Collections.emptyList();
+
+		public int size() {
+			return previousBlocks.size();
+		}
+	}
+
+	/**
+	 * Collects the snapshots of the blocks affected by the model changes since
+	 * the previous call; to be called where the model may be read.
+	 */
+	public Changes collectChanges() {
+		Set<Class> blocks;
+		synchronized (this) {
+			for (Package renamedPackage : renamedPackages) {
+				// all blocks below the package get a new path
+				for (Class block : queries.getBlocksToGen(renamedPackage)) {
+					dirtyBlocks.add(block);
+					renamedBlocks.add(block);
+				}
+			}
+			blocks = new LinkedHashSet<>(dirtyBlocks);
+			for (Class renamedBlock : renamedBlocks) {
+				// the dependents of the block as it was generated, under its previous name
+				CodegenBlock previous = generatedBlocks.get(renamedBlock);
+				int index = previous == null ? -1 : dependencyGraph.indexOf(previous.getRef());
+				if (index >= 0) {
+					for (CodegenBlock dependent : dependencyGraph.getDependents(index)) {
+						blocks.add(dependent.getBlock());
+					}
+				}
+			}
+			if (collisionsChanged) {
+				collisions.report(System.err);
+				collisionsChanged = false;
+			}
+			dirtyBlocks.clear();
+			renamedBlocks.clear();
+			renamedPackages.clear();
+		}
+		// names may have changed since the previous run
+		gen.resetMemoTables();
+		Changes changes = new Changes();
+		for (Class block : blocks) {
+			CodegenBlock previous = generatedBlocks.remove(block);
+			CodegenBlock current = isInScope(block) ? gen.collectBlock(block) : null;
+			if (current != null && current.isNameValid()) {
+				generatedBlocks.put(block, current);
+			} else {
+				current = null;
+			}
+			changes.previousBlocks.add(previous);
+			changes.currentBlocks.add(current);
+		}
+		if (changes.size() > 0) {
+			changes.generatedBlocks = new ArrayList<>(generatedBlocks.values());
+			int previousCycles = dependencyGraph.getCycles().size();
+			dependencyGraph = new BlockDependencyGraph(generatedBlocks.values());
+			if (dependencyGraph.getCycles().size() != previousCycles)
+				dependencyGraph.report(System.err);
+		}
+		return changes;
+	}
+
+	/**
+	 * Writes the files of collected changes, in the order they were collected;
+	 * may be called on any thread, as it does not read the model.
+	 *
+	 * @return the number of regenerated blocks
+	 */
+	public int write(Changes changes) throws IOException {
+		synchronized (packageFileReferences) {
+			long start = System.nanoTime();
+			if (changes.size() > 0) {
+				// as a full run does, with all blocks generated after the changes
+				for (CodeEmitter emitter : gen.getEmitters()) {
+					emitter.prepare(changes.generatedBlocks);
+				}
+			}
+			for (int i = 0; i < changes.size(); i++) {
+				writeBlock(changes.previousBlocks.get(i), changes.currentBlocks.get(i));
+			}
+			if (changes.size() > 0) {
+				System.out.println(String.format("Regenerated %d blocks in %d ms", changes.size(),
+						(System.nanoTime() - start) / 1_000_000));
+			}
+			return changes.size();
+		}
+	}
+
+	private void writeBlock(CodegenBlock previous, CodegenBlock current) throws IOException {
+		if (current != null) {
+			gen.doGenBlockFile(current);
+			updatePackageFileReferences(current, 1);
+		}
+		if (previous != null) {
+			for (CodeEmitter emitter : gen.getEmitters()) {
+				String previousPath = emitter.getBlockFilePath(previous.getRef());
+				if (current == null || !Objects.equals(previousPath, emitter.getBlockFilePath(current.getRef()))) {
+					outlet.deleteFile(previousPath);
+				}
+			}
+			updatePackageFileReferences(previous, -1);
+		}
+	}
+
+	private void updatePackageFileReferences(CodegenBlock block, int delta) throws IOException {
+		for (CodeEmitter emitter : gen.getEmitters()) {
+			for (String packageFile : emitter.getPackageFilePaths(block.getRef())) {
+				int references = packageFileReferences.getOrDefault(packageFile, 0) + delta;
+				if (references > 0) {
+					packageFileReferences.put(packageFile, references);
+				} else {
+					packageFileReferences.remove(packageFile);
+					outlet.deleteFile(packageFile);
+				}
+			}
+		}
+	}
+
+	private boolean isInScope(Class block) {
+		for (Package pack : modelPackagesToGen) {
+			if (queries.isBlockToGen(block, pack))
+				return true;
+		}
+		return false;
+	}
+
+	private void markDirty(Object element) {
+		if (element instanceof Class) {
+			synchronized (this) {
+				dirtyBlocks.add((Class) element);
+			}
+			notifyChange();
+		}
+	}
+
+	private void notifyChange() {
+		Runnable listener = changeListener;
+		if (listener != null)
+			listener.run();
+	}
+
+	private synchronized void markCollisionChanged(IPatternMatch collision) {
+		collisionsChanged = true;
+		markDirty(collision.get(0));
+		markDirty(collision.get(1));
+	}
+
+	private void markRenamed(Object element) {
+		if (element instanceof Package) {
+			synchronized (this) {
+				renamedPackages.add((Package) element);
+			}
+			notifyChange();
+		} else if (element instanceof Class) {
+			synchronized (this) {
+				dirtyBlocks.add((Class) element);
+				renamedBlocks.add((Class) element);
+			}
+			notifyChange();
+		} else if (element instanceof Element && ((Element) element).getOwner() instanceof Class) {
+			// a renamed part or port also changes the connector paths of the blocks reaching it
+			markRenamed(((Element) element).getOwner());
+		}
+	}
+
+	private void listen(ViatraQueryMatcher<IPatternMatch> matcher, boolean fireNow, Consumer<IPatternMatch> onChange) {
+		listen(matcher, fireNow, onChange, onChange);
+	}
+
+	private void listen(ViatraQueryMatcher<IPatternMatch> matcher, boolean fireNow,
+			Consumer<IPatternMatch> onAppearance, Consumer<IPatternMatch> onDisappearance) {
+		IMatchUpdateListener<IPatternMatch> listener = new IMatchUpdateListener<IPatternMatch>() {
+			@Override
+			public void notifyAppearance(IPatternMatch match) {
+				onAppearance.accept(match);
+			}
+
+			@Override
+			public void notifyDisappearance(IPatternMatch match) {
+				onDisappearance.accept(match);
+			}
+		};
+		listeners.put(matcher, listener);
+		engine.addMatchUpdateListener(matcher, listener, fireNow);
+	}
+}
@@ -0,0 +1,102 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen
+
+import java.util.Set
+
+/**
+ * Emits a Java class skeleton per block below the java directory of the code outlet,
+ * mirroring the structure of the generated Python classes:
+ * parts are fields, ports are properties delegating to the ports of parts,
+ * and assembly connectors are wired in the constructor.
+ */
+class JavaEmitter implements CodeEmitter {
+	public static val NAME = "java"
+	/**
+	 * To be changed whenever {@link #genBlockCode} changes.
+	 */
+	public static val VERSION = "1"
+
+	static val String ROOT_DIRECTORY = "java"
+	static val Set<String> KEYWORDS = #{
+		"abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const", "continue",
+		"default", "do", "double", "else", "enum", "extends", "final", "finally", "float", "for", "goto", "if",
+		"implements", "import", "instanceof", "int", "interface", "long", "native", "new", "package", "private",
+		"protected", "public", "return", "short", "static", "strictfp", "super", "switch", "synchronized", "this",
+		"throw", "throws", "transient", "try", "void", "volatile", "while", "true", "false", "null", "var"
+	}
+
+	override getName() {
+		return NAME
+	}
+
+	override getVersion() {
+		return VERSION
+	}
+
+	override String getBlockFilePath(CodegenBlock.Ref ref) {
+		return ROOT_DIRECTORY + "/" + ref.pathSteps.map[javaName].join("/") + ".java"
+	}
+
+	override renderBlock(CodegenBlock block) {
+		return block.genBlockCode
+	}
+
+	def genBlockCode(CodegenBlock block) '''
+		«IF block.ref.parent !== null»
+			package «block.ref.parent.genQualifiedName»;
+
+		«ENDIF»
+		/**
+		 * Class automatically generated by V4MD example code generator.
+		 * Derived from «block.humanName».
+		 */
+		public class «block.name.javaName» {
+			«FOR part : block.parts»
+				public final «part.type.genQualifiedName» «part.name.javaName» = new «part.type.genQualifiedName»();
+			«ENDFOR»
+			«FOR port : block.ports»
+				private Object «CodegenUtil.V4MD_FIELD_PREFIX»«port.name»;
+			«ENDFOR»
+
+			public «block.name.javaName»() {
+				«FOR conn : block.assemblies»
+					«conn.first.genPortSetter(conn.second.genPathToPortOwner)»;
+					«conn.second.genPortSetter(conn.first.genPathToPortOwner)»;
+				«ENDFOR»
+			}
+			«FOR port : block.ports»
+
+				public Object get«port.name.toFirstUpper»() {
+					return «CodegenUtil.V4MD_FIELD_PREFIX»«port.name»;
+				}
+
+				public void set«port.name.toFirstUpper»(Object value) {
+					«CodegenUtil.V4MD_FIELD_PREFIX»«port.name» = value;
+					if (value != null) {
+						«FOR target : port.delegationTargets»
+							«target.genPortSetter("value")»;
+						«ENDFOR»
+					}
+				}
+			«ENDFOR»
+		}
+	'''
+
+	def String genQualifiedName(CodegenBlock.Ref ref) {
+		return ref.pathSteps.map[javaName].join(".")
+	}
+
+	def String genPathToPortOwner(CodegenBlock.EndPath end) {
+		return "this" + end.ownerPath.map["." + javaName].join
+	}
+
+	def String genPortSetter(CodegenBlock.EndPath end, String value) {
+		return end.genPathToPortOwner + ".set" + end.portName.toFirstUpper + "(" + value + ")"
+	}
+
+	/**
+	 * The mangled name, suffixed by '_' if it is a Java keyword.
+	 */
+	def String javaName(String mangledName) {
+		return if (KEYWORDS.contains(mangledName)) mangledName + "_" else mangledName
+	}
+}
@@ -0,0 +1,122 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.io.PrintStream;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.eclipse.viatra.query.runtime.api.IPatternMatch;
+import org.eclipse.viatra.query.runtime.api.ViatraQueryMatcher;
+
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.NamedElement;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Namespace;
+
+/**
+ * The elements whose mangled name is not unique within their namespace, indexed
+ * from the matches of the mangledNameCollision pattern.
+ * <p>
+ * {@link #build(ViatraQueryMatcher)} reads all matches at once, so that
+ * checking an element is a single identity lookup. The index may be kept up to
+ * date with {@link #add(IPatternMatch)} and {@link #remove(IPatternMatch)}
+ * from match update listeners.
+ */
+public class MangledNameCollisionIndex {
+
+	private static class Collision {
+		private final String mangledName;
+		private int matches = 0;
+
+		Collision(String mangledName) {
+			this.mangledName = mangledName;
+		}
+	}
+
+	private final Map<NamedElement, Collision> collisions = new IdentityHashMap<>();
+	private final Map<Namespace, Map<String, Set<NamedElement>>> collisionsByNamespace = new LinkedHashMap<>();
+
+	/**
+	 * Indexes all current matches of the mangledNameCollision pattern.
+	 */
+	public static MangledNameCollisionIndex build(ViatraQueryMatcher<IPatternMatch> mangledNameCollision) {
+		MangledNameCollisionIndex index = new MangledNameCollisionIndex();
+		for (IPatternMatch match : mangledNameCollision.getAllMatches()) {
+			index.add(match);
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the non-unique mangled name of the given element, or null if its
+	 * mangled name is unique.
+	 */
+	public synchronized String getCollidingMangledName(NamedElement element) {
+		Collision collision = collisions.get(element);
+		return collision == null ? null : collision.mangledName;
+	}
+
+	public synchronized boolean isColliding(NamedElement element) {
+		return collisions.containsKey(element);
+	}
+
+	/**
+	 * The number of elements with a non-unique mangled name.
+	 */
+	public synchronized int size() {
+		return collisions.size();
+	}
+
+	public synchronized boolean isEmpty() {
+		return collisions.isEmpty();
+	}
+
+	/**
+	 * Records a match of the mangledNameCollision pattern.
+	 */
+	public synchronized void add(IPatternMatch match) {
+		Namespace namespace = (Namespace) match.get(0);
+		NamedElement element = (NamedElement) match.get(1);
+		String mangledName = (String) match.get(2);
+		collisions.computeIfAbsent(element, e -> new Collision(mangledName)).matches++;
+		collisionsByNamespace.computeIfAbsent(namespace, n -> new LinkedHashMap<>())
+				.computeIfAbsent(mangledName, n -> new LinkedHashSet<>()).add(element);
+	}
+
+	/**
+	 * Forgets a match of the mangledNameCollision pattern that disappeared.
+	 */
+	public synchronized void remove(IPatternMatch match) {
+		Namespace namespace = (Namespace) match.get(0);
+		NamedElement element = (NamedElement) match.get(1);
+		String mangledName = (String) match.get(2);
+		Collision collision = collisions.get(element);
+		if (collision != null && --collision.matches == 0) {
+			collisions.remove(element);
+		}
+		Map<String, Set<NamedElement>> names = collisionsByNamespace.get(namespace);
+		if (names != null) {
+			Set<NamedElement> elements = names.get(mangledName);
+			if (elements != null && elements.remove(element) && elements.isEmpty()) {
+				names.remove(mangledName);
+				if (names.isEmpty())
+					collisionsByNamespace.remove(namespace);
+			}
+		}
+	}
+
+	/**
+	 * Prints the collisions grouped by namespace; prints nothing if there are
+	 * none.
+	 */
+	public synchronized void report(PrintStream out) {
+		collisionsByNamespace.forEach((namespace, names) -> {
+			out.println(String.format(
+					"Mangled name ambiguity in %s, skipping code generation of elements with non-unique names:",
+					namespace.getHumanName()));
+			names.forEach((mangledName, elements) -> out.println(String.format("\t%s: %s", mangledName,
+					elements.stream().map(NamedElement::getHumanName).collect(Collectors.joining(", ")))));
+		});
+	}
+}
@@ -0,0 +1,219 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The blocks of a run bundled into one Python module per package: the
+ * __init__.py of the package contains the classes of all blocks directly in
+ * it, and the imports of the blocks are collapsed to the modules of the
+ * imported blocks.
+ * <p>
+ * Modules are ordered topologically by their imports, dependencies first, and
+ * so are the imports of each module and the classes within a module. The
+ * generated classes only refer to other modules when they are instantiated,
+ * so modules importing each other in a cycle still import without failure;
+ * such cycles are reported by {@link #report(PrintStream)}, as they keep the
+ * packages from being imported separately.
+ * <p>
+ * Blocks with an invalid name are not generated, so they are left out of the
+ * modules.
+ */
+public class PackageModules {
+
+	private final Map<String, List<CodegenBlock>> modules = new LinkedHashMap<>();
+	private final Map<String, Set<String>> moduleImports = new LinkedHashMap<>();
+	private final Map<String, Integer> moduleOrder = new HashMap<>();
+	private final Set<String> heads = new HashSet<>();
+	private final Set<String> moduleFiles = new HashSet<>();
+	private final List<List<String>> cycles = new ArrayList<>();
+	private final Set<Set<String>> blockCycleModules = new HashSet<>();
+
+	public PackageModules(List<CodegenBlock> blocks) {
+		Map<String, List<CodegenBlock>> blocksByModule = new LinkedHashMap<>();
+		List<CodegenBlock> validBlocks = new ArrayList<>();
+		for (CodegenBlock block : blocks) {
+			if (block.isNameValid()) {
+				validBlocks.add(block);
+				blocksByModule.computeIfAbsent(getModuleName(block.getRef()), module -> new ArrayList<>()).add(block);
+			}
+		}
+		for (Map.Entry<String, List<CodegenBlock>> module : blocksByModule.entrySet()) {
+			Set<String> imports = new LinkedHashSet<>();
+			for (CodegenBlock block : module.getValue()) {
+				for (CodegenBlock.Ref imported : block.getImports()) {
+					imports.add(getModuleName(imported));
+				}
+			}
+			imports.remove(module.getKey());
+			moduleImports.put(module.getKey(), imports);
+		}
+		List<String> orderedModules = sortTopologically(new TreeSet<>(blocksByModule.keySet()), moduleImports, cycles);
+		for (List<CodegenBlock> blockCycle : new BlockDependencyGraph(validBlocks).getCycles()) {
+			Set<String> cycleModules = new TreeSet<>();
+			for (CodegenBlock block : blockCycle) {
+				cycleModules.add(getModuleName(block.getRef()));
+			}
+			blockCycleModules.add(cycleModules);
+		}
+		for (String module : orderedModules) {
+			moduleOrder.put(module, moduleOrder.size());
+		}
+		for (String module : orderedModules) {
+			List<CodegenBlock> moduleBlocks = sortBlocks(blocksByModule.get(module));
+			modules.put(module, moduleBlocks);
+			heads.add(moduleBlocks.get(0).getRef().getQualifiedName());
+			moduleFiles.add(getModuleFilePath(moduleBlocks.get(0).getRef()));
+			List<String> imports = new ArrayList<>(moduleImports.get(module));
+			// modules of the run in topological order, then the others by name
+			imports.sort(Comparator
+					.<String, Integer> comparing(imported -> moduleOrder.getOrDefault(imported, Integer.MAX_VALUE))
+					.thenComparing(Comparator.naturalOrder()));
+			moduleImports.put(module, new LinkedHashSet<>(imports));
+		}
+	}
+
+	/**
+	 * The name of the module containing the class of the referenced block:
+	 * the module of its package, or a module of its own for a block outside of
+	 * packages.
+	 */
+	public static String getModuleName(CodegenBlock.Ref block) {
+		return block.getParent() == null ? block.getModuleName() : block.getParent().getModuleName();
+	}
+
+	/**
+	 * The path of the module file of the referenced block, relative to the code
+	 * outlet root.
+	 */
+	public static String getModuleFilePath(CodegenBlock.Ref block) {
+		return block.getParent() == null ? block.getFilePath() + ".py" : block.getParent().getPackageFilePath();
+	}
+
+	/**
+	 * The module names, dependencies first.
+	 */
+	public Set<String> getModuleNames() {
+		return Collections.unmodifiableSet(modules.keySet());
+	}
+
+	/**
+	 * The blocks of the module, blocks whose parts are typed by other blocks
+	 * of the module after those.
+	 */
+	public List<CodegenBlock> getBlocks(String module) {
+		return Collections.unmodifiableList(modules.getOrDefault(module, Collections.emptyList()));
+	}
+
+	/**
+	 * The modules imported by the module, dependencies first.
+	 */
+	public Set<String> getImports(String module) {
+		return Collections.unmodifiableSet(moduleImports.getOrDefault(module, Collections.emptySet()));
+	}
+
+	/**
+	 * Whether the block is the first one of its module, i.e. the one the
+	 * module is rendered for.
+	 */
+	public boolean isHead(CodegenBlock block) {
+		return heads.contains(block.getRef().getQualifiedName());
+	}
+
+	/**
+	 * Whether the package file is the module of some blocks of the run.
+	 */
+	public boolean isModuleFile(String path) {
+		return moduleFiles.contains(path);
+	}
+
+	/**
+	 * The sets of modules importing each other in a cycle.
+	 */
+	public List<List<String>> getCycles() {
+		return Collections.unmodifiableList(cycles);
+	}
+
+	/**
+	 * Reports the cycles between modules, except those between the modules of
+	 * an import cycle of blocks, which {@link BlockDependencyGraph} reports.
+	 */
+	public void report(PrintStream out) {
+		for (List<String> cycle : cycles) {
+			if (!blockCycleModules.contains(new TreeSet<>(cycle)))
+				out.println(String.format("Import cycle between the modules %s", String.join(", ", cycle)));
+		}
+	}
+
+	private static List<CodegenBlock> sortBlocks(List<CodegenBlock> blocks) {
+		Map<String, CodegenBlock> blocksByName = new LinkedHashMap<>();
+		Map<String, Set<String>> dependencies = new HashMap<>();
+		for (CodegenBlock block : blocks) {
+			blocksByName.put(block.getRef().getQualifiedName(), block);
+			Set<String> blockDependencies = new LinkedHashSet<>();
+			for (CodegenBlock.Part part : block.getParts()) {
+				blockDependencies.add(part.getType().getQualifiedName());
+			}
+			dependencies.put(block.getRef().getQualifiedName(), blockDependencies);
+		}
+		List<CodegenBlock> sorted = new ArrayList<>();
+		for (String name : sortTopologically(blocksByName.keySet(), dependencies, new ArrayList<>())) {
+			sorted.add(blocksByName.get(name));
+		}
+		return sorted;
+	}
+
+	/**
+	 * Orders the nodes so that each node follows the nodes it depends on,
+	 * except within cycles, which are added to the given list; dependencies on
+	 * other nodes are ignored. The order is deterministic in the order of the
+	 * nodes and their dependencies.
+	 */
+	private static List<String> sortTopologically(Collection<String> nodes, Map<String, Set<String>> dependencies,
+			List<List<String>> cycles) {
+		List<String> nodeList = new ArrayList<>(nodes);
+		Map<String, Integer> indices = new HashMap<>(nodeList.size() * 2);
+		for (String node : nodeList) {
+			indices.put(node, indices.size());
+		}
+		int[] offsets = new int[nodeList.size() + 1];
+		int[] targets = new int[16];
+		int edges = 0;
+		for (int i = 0; i < nodeList.size(); i++) {
+			offsets[i] = edges;
+			for (String dependency : dependencies.getOrDefault(nodeList.get(i), Collections.emptySet())) {
+				Integer target = indices.get(dependency);
+				if (target != null && target != i) {
+					if (edges == targets.length)
+						targets = Arrays.copyOf(targets, edges * 2);
+					targets[edges++] = target;
+				}
+			}
+		}
+		offsets[nodeList.size()] = edges;
+		// the same strongly connected components as for the blocks, found dependencies first
+		List<String> sorted = new ArrayList<>(nodeList.size());
+		for (int[] members : BlockDependencyGraph.findComponents(offsets, targets, new int[nodeList.size()])) {
+			List<String> component = new ArrayList<>(members.length);
+			for (int member : members) {
+				component.add(nodeList.get(member));
+			}
+			sorted.addAll(component);
+			if (component.size() > 1)
+				cycles.add(component);
+		}
+		return sorted;
+	}
+}
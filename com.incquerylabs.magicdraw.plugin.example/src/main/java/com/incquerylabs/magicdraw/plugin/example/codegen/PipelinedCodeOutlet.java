@@ -0,0 +1,178 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decouples rendering from writing: the rendering threads put the finished
+ * files on a bounded queue, which a dedicated writer thread drains into the
+ * delegate outlet. The writer takes up to 64 files off the queue at a time,
+ * but writes them one by one.
+ * <p>
+ * A failing write does not stop the writer: the remaining files are taken off
+ * the queue without being written, and the first failure is thrown to the
+ * renderers and by {@link #close()}.
+ * <p>
+ * A full queue blocks the renderers, so the memory held by rendered but
+ * unwritten files stays bounded. On {@link #close()}, the time the renderers
+ * spent waiting for the writer and the time the writer spent waiting for the
+ * renderers is reported: the former dominates I/O bound runs, the latter CPU
+ * bound ones.
+ */
+public class PipelinedCodeOutlet implements CodeOutlet {
+
+	private static final int BATCH_SIZE = 64;
+
+	private interface Operation {
+		void apply(CodeOutlet outlet) throws IOException;
+	}
+
+	private static final Operation END_OF_STREAM = outlet -> {};
+
+	private final CodeOutlet delegate;
+	private final BlockingQueue<Operation> queue;
+	private final Thread writer;
+	private final AtomicLong rendererWaitNanos = new AtomicLong();
+	private long writerWaitNanos = 0;
+	private long writerBusyNanos = 0;
+	private int drains = 0;
+	private volatile IOException failure = null;
+
+	public PipelinedCodeOutlet(CodeOutlet delegate, int queueCapacity) {
+		this.delegate = delegate;
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.writer = new Thread(this::drain, "Code generator writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	@Override
+	public void writeFile(String path, String content) throws IOException {
+		enqueue(outlet -> outlet.writeFile(path, content));
+	}
+
+	@Override
+	public void createDirectories(Collection<String> paths) throws IOException {
+		enqueue(outlet -> outlet.createDirectories(paths));
+	}
+
+	@Override
+	public void ensureFile(String path) throws IOException {
+		enqueue(outlet -> outlet.ensureFile(path));
+	}
+
+	/**
+	 * The delegate reports the files when it has written them.
+	 */
+	@Override
+	public void setStatistics(CodegenStatistics statistics) {
+		delegate.setStatistics(statistics);
+	}
+
+	@Override
+	public void deleteFile(String path) throws IOException {
+		enqueue(outlet -> outlet.deleteFile(path));
+	}
+
+	/**
+	 * Waits until all queued files are written, then closes the delegate, also
+	 * after a failure, which is thrown afterwards.
+	 */
+	@Override
+	public void close() throws IOException {
+		// the writer drains the queue after a failure, so the end of the stream is always taken
+		put(END_OF_STREAM);
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the writer", e);
+		}
+		IOException failure = this.failure;
+		try {
+			delegate.close();
+		} catch (IOException e) {
+			if (failure == null)
+				throw e;
+			failure.addSuppressed(e);
+		}
+		if (failure != null)
+			throw failure;
+		System.out.println(String.format(
+				"Pipeline: renderers waited %d ms for the writer, writer waited %d ms for the renderers, wrote for %d ms in %d drains of the queue (%s bound)",
+				TimeUnit.NANOSECONDS.toMillis(rendererWaitNanos.get()), TimeUnit.NANOSECONDS.toMillis(writerWaitNanos),
+				TimeUnit.NANOSECONDS.toMillis(writerBusyNanos), drains,
+				rendererWaitNanos.get() > writerWaitNanos ? "I/O" : "CPU"));
+	}
+
+	private void enqueue(Operation operation) throws IOException {
+		checkFailure();
+		put(operation);
+	}
+
+	private void put(Operation operation) throws IOException {
+		long start = System.nanoTime();
+		try {
+			queue.put(operation);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the writer", e);
+		}
+		rendererWaitNanos.addAndGet(System.nanoTime() - start);
+	}
+
+	private void checkFailure() throws IOException {
+		if (failure != null)
+			throw failure;
+	}
+
+	private void drain() {
+		List<Operation> batch = new ArrayList<>(BATCH_SIZE);
+		boolean running = true;
+		boolean interrupted = false;
+		while (running) {
+			long start = System.nanoTime();
+			try {
+				batch.add(queue.take());
+			} catch (InterruptedException e) {
+				// renderers and close() keep waiting for the writer, so it stops only at the end of the stream
+				interrupted = true;
+				fail(new IOException("Writer interrupted", e));
+				continue;
+			}
+			queue.drainTo(batch, BATCH_SIZE - 1);
+			long taken = System.nanoTime();
+			writerWaitNanos += taken - start;
+			for (Operation operation : batch) {
+				if (operation == END_OF_STREAM) {
+					running = false;
+				} else if (failure == null) {
+					// after a failure, keep draining so that the renderers are not blocked
+					try {
+						operation.apply(delegate);
+					} catch (IOException e) {
+						fail(e);
+					} catch (RuntimeException e) {
+						fail(new IOException("Writer failed", e));
+					}
+				}
+			}
+			writerBusyNanos += System.nanoTime() - taken;
+			drains++;
+			batch.clear();
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	private void fail(IOException e) {
+		if (failure == null)
+			failure = e;
+	}
+}
@@ -0,0 +1,344 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen
+
+import java.util.LinkedList
+import java.util.List
+import java.util.Set
+
+/**
+ * Emits a Python module per block, containing the class of the block, 
+ * into a package hierarchy of directories with __init__.py files.
+ * <p>
+ * Optionally, the classes declare __slots__ for their parts and port backing fields,
+ * so that their instances carry no per-object __dict__,
+ * and their parts are created lazily on first access instead of in __init__,
+ * or their port assignments are flattened at generation time.
+ * The blocks of a package may also be bundled into the __init__.py module of the package.
+ */
+class PythonEmitter implements CodeEmitter {
+	public static val NAME = "python"
+	/**
+	 * To be changed whenever {@link #genBlockCode} changes.
+	 */
+	public static val VERSION = "3"
+	
+	static val ROOT_PARAMETER = CodegenUtil.V4MD_PREFIX + "_root"
+	
+	var boolean slots = false
+	var boolean lazyParts = false
+	var boolean flatWiring = false
+	var FlattenedWiring wiring = null
+	var boolean packageModules = false
+	var PackageModules modules = null
+	
+	override getName() {
+		return NAME
+	}
+	
+	override getVersion() {
+		return VERSION + (if (slots) "-slots" else "") + (if (lazyParts) "-lazy" else "") + (if (flatWiring) "-flat" else "")
+			+ (if (packageModules) "-packages" else "")
+	}
+	
+	/**
+	 * If set, the generated classes declare __slots__ listing every part and port backing field,
+	 * which saves the per-object __dict__ of their instances; property and delegation behavior is unchanged.
+	 */
+	def void setSlots(boolean slots) {
+		this.slots = slots
+	}
+	
+	def boolean isSlots() {
+		return slots
+	}
+	
+	/**
+	 * If set, the parts of the generated classes are properties creating the part on first access,
+	 * so that constructing an object only creates the accessed parts of its composition tree.
+	 * An assembly connector is wired once the parts at both of its ends exist,
+	 * and a port value is delegated to a part once the part exists.
+	 */
+	def void setLazyParts(boolean lazyParts) {
+		if (lazyParts && flatWiring)
+			throw new IllegalArgumentException("Lazy parts and flat wiring are mutually exclusive")
+		this.lazyParts = lazyParts
+	}
+	
+	def boolean isLazyParts() {
+		return lazyParts
+	}
+	
+	/**
+	 * If set, the delegation and assembly chains are resolved at generation time by {@link FlattenedWiring}:
+	 * an object of a top-level block, one not used as a part type in the run, sets the port fields of its whole composition
+	 * tree in one pass, an object of another block constructed on its own sets those reached by its own assemblies after its
+	 * parts have wired themselves, and port setters set the fields of all ports reached through delegation instead of
+	 * cascading through setters. Ports of parts whose types are not in the run are still set through their setters.
+	 * The emitter must be prepared with all blocks of the run.
+	 */
+	def void setFlatWiring(boolean flatWiring) {
+		if (flatWiring && lazyParts)
+			throw new IllegalArgumentException("Lazy parts and flat wiring are mutually exclusive")
+		this.flatWiring = flatWiring
+	}
+	
+	def boolean isFlatWiring() {
+		return flatWiring
+	}
+	
+	/**
+	 * If set, the classes of the blocks directly in a package are generated into the __init__.py module 
+	 * of the package instead of a module per block, as ordered by {@link PackageModules}. 
+	 * The imports of the blocks are collapsed to the imported modules.
+	 * The emitter must be prepared with all blocks of the run.
+	 */
+	def void setPackageModules(boolean packageModules) {
+		this.packageModules = packageModules
+	}
+	
+	def boolean isPackageModules() {
+		return packageModules
+	}
+	
+	override prepare(List<CodegenBlock> blocks) {
+		if (flatWiring)
+			wiring = new FlattenedWiring(blocks)
+		if (packageModules) {
+			modules = new PackageModules(blocks)
+			modules.report(System.err)
+		}
+	}
+	
+	override getRenderCacheSalt(CodegenBlock block) {
+		val salt = name + ":" + version
+		if (packageModules) {
+			// the module is rendered from all of its blocks
+			return salt + ":" + block.ref.preparedModules.getBlocks(PackageModules.getModuleName(block.ref))
+				.map[RenderCache.computeKey(it, it.blockSalt)].join(",")
+		}
+		return salt + block.blockSalt
+	}
+	
+	private def String getBlockSalt(CodegenBlock block) {
+		if (!flatWiring)
+			return ""
+		// the flattened code depends on the ports of the nested parts and on the blocks using it as a part type
+		return ":" + block.topLevel + ":" + block.wires.join(",") + ":" 
+			+ block.ports.map[port | block.getDelegationClosure(port).join(",")].join(";")
+	}
+	
+	override String getBlockFilePath(CodegenBlock.Ref ref) {
+		if (packageModules)
+			return PackageModules.getModuleFilePath(ref)
+		return ref.filePath + '.py'
+	}
+	
+	override List<String> getPackageFilePaths(CodegenBlock.Ref ref) {
+		val paths = new LinkedList<String>
+		for (var pack = ref.parent; pack !== null; pack = pack.parent) {
+			// package modules are written as the files of their blocks
+			if (!packageModules || !ref.preparedModules.isModuleFile(pack.packageFilePath))
+				paths.addFirst(pack.packageFilePath)
+		}
+		return paths
+	}
+	
+	override rendersFile(CodegenBlock block) {
+		return !packageModules || block.ref.preparedModules.isHead(block)
+	}
+	
+	override renderBlock(CodegenBlock block) {
+		if (packageModules)
+			return block.ref.preparedModules.genModuleCode(PackageModules.getModuleName(block.ref))
+		return block.genBlockCode
+	}
+	
+	def genModuleCode(PackageModules prepared, String module) '''
+	    «FOR imported : prepared.getImports(module)»
+	        import «imported»
+	    «ENDFOR»
+	    «FOR block : prepared.getBlocks(module)»
+	        «block.genBlockCode»
+	    «ENDFOR»
+	'''
+	
+	def genBlockCode(CodegenBlock block) '''
+	    «IF !packageModules»
+	        «FOR imported: block.imports»
+	            import «imported.genPackageableElementPackageRef»
+	        «ENDFOR»
+	    «ENDIF»
+	    class «block.name»:
+	        """ 
+	            Class automatically generated by V4MD example code generator.
+	            Derived from «block.humanName».
+	            Refer to this Python class as «block.ref.genPackageableElementRef»
+	        """
+	        «IF slots»
+	            __slots__ = [«block.genSlotNames»]
+	        «ENDIF»
+	        
+	        def __init__(self«IF flatWiring && !block.topLevel», «ROOT_PARAMETER»=True«ENDIF»):
+	            «FOR part : block.parts»
+	                «IF lazyParts»
+	                    self.«CodegenUtil.V4MD_PART_PREFIX»«part.name» = None
+	                «ELSEIF flatWiring && block.preparedWiring.contains(part.type)»
+	                    self.«part.name» = «block.genPartTypeRef(part.type)»(«IF block.topLevel»False«ELSE»«ROOT_PARAMETER»«ENDIF»)
+	                «ELSE»
+	                    self.«part.name» = «block.genPartTypeRef(part.type)»()
+	                «ENDIF»
+	            «ENDFOR»
+	            «IF flatWiring && block.topLevel»
+	                «FOR wire : block.wires»
+	                    self«wire.target.genPathToTarget» = self«wire.dottedValuePath»
+	                «ENDFOR»
+	            «ELSEIF flatWiring»
+	                «IF !block.wires.empty»
+	                    if «ROOT_PARAMETER»:
+	                        «FOR wire : block.wires»
+	                            self«wire.target.genPathToTarget» = self«wire.dottedValuePath»
+	                        «ENDFOR»
+	                «ENDIF»
+	            «ELSE»
+	                «FOR conn : block.assemblies.filter[!lazyParts || requiredParts.empty]»
+	                    self«conn.first.genPathToPort» = self«conn.second.genPathToPortOwner»
+	                    self«conn.second.genPathToPort» = self«conn.first.genPathToPortOwner»
+	                «ENDFOR»
+	            «ENDIF»
+	            pass
+	        
+	        «IF lazyParts»
+	            «FOR part : block.parts»
+	                @property
+	                def «part.name»(self):
+	                    if self.«CodegenUtil.V4MD_PART_PREFIX»«part.name» is None:
+	                        self.«CodegenUtil.V4MD_PART_PREFIX»«part.name» = «block.genPartTypeRef(part.type)»()
+	                        «FOR conn : block.assemblies.filter[requiredParts.contains(part.name)]»
+	                            «IF conn.requiredParts.size > 1»
+	                                if «conn.requiredParts.filter[it != part.name].genPartsCreated»:
+	                                    self«conn.first.genPathToPort» = self«conn.second.genPathToPortOwner»
+	                                    self«conn.second.genPathToPort» = self«conn.first.genPathToPortOwner»
+	                            «ELSE»
+	                                self«conn.first.genPathToPort» = self«conn.second.genPathToPortOwner»
+	                                self«conn.second.genPathToPort» = self«conn.first.genPathToPortOwner»
+	                            «ENDIF»
+	                        «ENDFOR»
+	                        «FOR port : block.ports»
+	                            «FOR target : port.delegationTargets.filter[requiredParts.contains(part.name)]»
+	                                if getattr(self, '«CodegenUtil.V4MD_FIELD_PREFIX»«port.name»', None):
+	                                    self«target.genPathToPort» = self.«CodegenUtil.V4MD_FIELD_PREFIX»«port.name»
+	                            «ENDFOR»
+	                        «ENDFOR»
+	                    return self.«CodegenUtil.V4MD_PART_PREFIX»«part.name»
+	                
+	            «ENDFOR»
+	        «ENDIF»
+	        «FOR port : block.ports»
+	            @property
+	            def «port.name»(self):
+	                return self.«CodegenUtil.V4MD_FIELD_PREFIX»«port.name»
+	            
+	            @«port.name».setter
+	            def «port.name»(self, value):
+	                self.«CodegenUtil.V4MD_FIELD_PREFIX»«port.name» = value
+	                if (value):
+	                    «IF flatWiring»
+	                    	«FOR target : block.getDelegationClosure(port)»
+	                    		self«target.genPathToTarget» = value
+	                    	«ENDFOR»
+	                    «ENDIF»
+	                    «FOR target : port.delegationTargets.filter[!flatWiring]»
+	                    	«IF lazyParts && !target.requiredParts.empty»
+	                    		if «target.requiredParts.genPartsCreated»:
+	                    		    self«target.genPathToPort» = value
+	                    	«ELSE»
+	                    		self«target.genPathToPort» = value
+	                    	«ENDIF»
+	                    «ENDFOR»
+	                    pass
+	                    
+	        «ENDFOR»
+	'''
+	
+	/**
+	 * The wires of the whole composition tree for a top-level block, otherwise those of its own assemblies,
+	 * applied only if the object is not constructed as a part of a top-level block.
+	 */
+	def List<FlattenedWiring.Wire> getWires(CodegenBlock block) {
+		if (block.topLevel)
+			return block.preparedWiring.getTreeWires(block.ref)
+		return block.preparedWiring.getWires(block.ref)
+	}
+	
+	def boolean isTopLevel(CodegenBlock block) {
+		return block.preparedWiring.isTopLevel(block.ref)
+	}
+	
+	def List<FlattenedWiring.Target> getDelegationClosure(CodegenBlock block, CodegenBlock.Port port) {
+		return block.preparedWiring.getDelegationClosure(block.ref, port.name)
+	}
+	
+	private def PackageModules getPreparedModules(CodegenBlock.Ref ref) {
+		if (modules === null)
+			throw new IllegalStateException("The emitter is not prepared for the package module of " + ref.qualifiedName)
+		return modules
+	}
+	
+	private def FlattenedWiring getPreparedWiring(CodegenBlock block) {
+		if (wiring === null)
+			throw new IllegalStateException("The emitter is not prepared for flat wiring of " + block.ref.qualifiedName)
+		return wiring
+	}
+	
+	def genSlotNames(CodegenBlock block) {
+		val partFieldPrefix = if (lazyParts) CodegenUtil.V4MD_PART_PREFIX else ""
+		return (block.parts.map[partFieldPrefix + name] + block.ports.map[CodegenUtil.V4MD_FIELD_PREFIX + name])
+			.map["'" + it + "'"].join(", ")
+	}
+	
+	/**
+	 * The first steps of the owner path of the end, i.e. the part of the block that must exist to reach the port.
+	 */
+	def Set<String> requiredParts(CodegenBlock.EndPath end) {
+		return end.ownerPath.take(1).toSet
+	}
+	
+	def Set<String> requiredParts(CodegenBlock.Assembly conn) {
+		return (conn.first.ownerPath.take(1) + conn.second.ownerPath.take(1)).toSet
+	}
+	
+	def genPartsCreated(Iterable<String> parts) {
+		return parts.map["self." + CodegenUtil.V4MD_PART_PREFIX + it + " is not None"].join(" and ")
+	}
+	
+	def CharSequence genPackageableElementRef(CodegenBlock.Ref ref) {
+		if (packageModules)
+			return PackageModules.getModuleName(ref) + "." + ref.name
+		return ref.qualifiedName
+	} 
+	/**
+	 * The reference to the class of a part type in the module of the block: the class name within a package module.
+	 */
+	def CharSequence genPartTypeRef(CodegenBlock block, CodegenBlock.Ref type) {
+		if (packageModules && PackageModules.getModuleName(type) == PackageModules.getModuleName(block.ref))
+			return type.name
+		return type.genPackageableElementRef
+	}
+	def CharSequence genPackageableElementPackageRef(CodegenBlock.Ref ref) {
+		return ref.moduleName
+	} 
+	
+	def genPathToPortOwner(CodegenBlock.EndPath end) {
+		return end.dottedOwnerPath
+	}
+	def genPathToPort(CodegenBlock.EndPath end) {
+		return end.dottedPortPath
+	}
+	def genPathToPortField(CodegenBlock.EndPath end) {
+		return end.dottedOwnerPath + "." + CodegenUtil.V4MD_FIELD_PREFIX + end.portName
+	}
+	def genPathToTarget(FlattenedWiring.Target target) {
+		if (target.throughSetter)
+			return target.end.genPathToPort
+		return target.end.genPathToPortField
+	}
+}
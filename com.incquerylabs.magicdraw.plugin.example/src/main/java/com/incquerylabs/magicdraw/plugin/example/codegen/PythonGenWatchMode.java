@@ -0,0 +1,194 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.SwingUtilities;
+
+import org.eclipse.viatra.query.runtime.api.AdvancedViatraQueryEngine;
+
+import com.incquerylabs.v4md.ViatraQueryAdapter;
+import com.nomagic.magicdraw.core.Application;
+import com.nomagic.magicdraw.core.Project;
+import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Package;
+
+/**
+ * Watch mode of the Python code generator: keeps the code generated from a set
+ * of packages of a project up to date while the model is edited.
+ * <p>
+ * The codegen engine of the project is kept alive while the watch mode is
+ * running. Model changes are debounced: {@link #DEBOUNCE_MILLIS} after the
+ * last change, the snapshots of the affected blocks are collected on the UI
+ * thread, where the model is edited, and their files are rendered and written
+ * on a background thread. The latency from the first change to the written
+ * files is shown in the status bar.
+ */
+public class PythonGenWatchMode {
+
+	public static final String ENGINE_ID = PythonGenWatchMode.class.getName();
+	public static final long DEBOUNCE_MILLIS = 500;
+
+	private static final Map<Project, PythonGenWatchMode> RUNNING = new HashMap<>();
+
+	private final ViatraQueryAdapter adapter;
+	private final IncrementalGenPython generator;
+	private final ScheduledExecutorService debouncer = Executors
+			.newSingleThreadScheduledExecutor(runnable -> newDaemonThread(runnable, "debouncer"));
+	private final ExecutorService writer = Executors
+			.newSingleThreadExecutor(runnable -> newDaemonThread(runnable, "writer"));
+	private ScheduledFuture<?> pendingRegeneration = null;
+	private long firstChangeNanos = 0;
+	private volatile boolean stopped = false;
+	// held while the model is read through the engine, which is disposed only outside of it
+	private final Object collectLock = new Object();
+
+	private PythonGenWatchMode(ViatraQueryAdapter adapter, IncrementalGenPython generator) {
+		this.adapter = adapter;
+		this.generator = generator;
+	}
+
+	/**
+	 * Starts the watch mode of the project, unless it is running, and
+	 * generates the code of all blocks of the packages first.
+	 */
+	public static void start(Project project, List<Package> packages, File outputDirectory)
+			throws IOException, IllegalAccessException {
+		synchronized (RUNNING) {
+			if (RUNNING.containsKey(project))
+				return;
+		}
+		ViatraQueryAdapter adapter = ViatraQueryAdapter.getOrCreateAdapter(project, ENGINE_ID);
+		AdvancedViatraQueryEngine engine = adapter.getEngine();
+		IncrementalGenPython generator = new IncrementalGenPython(engine, outputDirectory.getPath(),
+				Collections.emptyList(), packages);
+		PythonGenWatchMode watchMode = new PythonGenWatchMode(adapter, generator);
+		long start = System.nanoTime();
+		generator.start();
+		int blocks = generator.regenerate();
+		generator.setChangeListener(watchMode::onChange);
+		synchronized (RUNNING) {
+			RUNNING.put(project, watchMode);
+		}
+		watchMode.showStatus(String.format("Python code generated: %d blocks in %d ms", blocks,
+				(System.nanoTime() - start) / 1_000_000));
+	}
+
+	public static boolean isRunning(Project project) {
+		synchronized (RUNNING) {
+			return RUNNING.containsKey(project);
+		}
+	}
+
+	/**
+	 * Stops the watch mode of the project, if it is running, and disposes its
+	 * codegen engine; the generated files are kept.
+	 * <p>
+	 * The match update listeners are removed and the engine is disposed before
+	 * returning, after a collection of changes in progress has finished. The
+	 * files of the changes collected so far are written afterwards on the
+	 * writer thread, as they no longer need the model, so that closing the
+	 * project is not delayed by writing them.
+	 */
+	public static void stop(Project project) {
+		PythonGenWatchMode watchMode;
+		synchronized (RUNNING) {
+			watchMode = RUNNING.remove(project);
+		}
+		if (watchMode != null)
+			watchMode.dispose();
+	}
+
+	private void dispose() {
+		synchronized (this) {
+			stopped = true;
+			debouncer.shutdownNow();
+		}
+		synchronized (collectLock) {
+			try {
+				generator.stop();
+			} finally {
+				adapter.dispose(ENGINE_ID);
+			}
+			// queued after the last collected changes, which are written first
+			writer.execute(() -> {
+				try {
+					generator.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			});
+			writer.shutdown();
+		}
+	}
+
+	/**
+	 * Called on the thread changing the model; postpones the regeneration
+	 * until the model has not changed for {@link #DEBOUNCE_MILLIS}.
+	 */
+	private synchronized void onChange() {
+		if (stopped)
+			return;
+		if (pendingRegeneration == null) {
+			firstChangeNanos = System.nanoTime();
+		} else {
+			pendingRegeneration.cancel(false);
+		}
+		pendingRegeneration = debouncer.schedule(() -> SwingUtilities.invokeLater(this::collectChanges),
+				DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Collects the snapshots of the changed blocks on the UI thread; this only
+	 * reads the affected blocks, rendering and writing is left to the writer
+	 * thread.
+	 */
+	private void collectChanges() {
+		synchronized (collectLock) {
+			long changeNanos;
+			synchronized (this) {
+				if (stopped)
+					return;
+				pendingRegeneration = null;
+				changeNanos = firstChangeNanos;
+			}
+			// dispose() waits for the collection, so the engine is alive and the writer still accepts the changes
+			IncrementalGenPython.Changes changes = generator.collectChanges();
+			writer.execute(() -> write(changes, changeNanos));
+		}
+	}
+
+	private void write(IncrementalGenPython.Changes changes, long changeNanos) {
+		try {
+			int blocks = generator.write(changes);
+			if (blocks > 0) {
+				showStatus(String.format("Python code regenerated: %d blocks, %d ms after the change", blocks,
+						(System.nanoTime() - changeNanos) / 1_000_000));
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			showStatus("Python code regeneration failed: " + e.getMessage());
+		}
+	}
+
+	private static Thread newDaemonThread(Runnable runnable, String role) {
+		Thread thread = new Thread(runnable, "Python code generator watch mode " + role);
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	private void showStatus(String status) {
+		SwingUtilities.invokeLater(() -> {
+			if (!stopped && Application.getInstance().getMainFrame() != null)
+				Application.getInstance().getMainFrame().setStatusBarInfo(status);
+		});
+	}
+}
@@ -0,0 +1,203 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * On-disk cache of rendered block code, keyed by a hash of the block snapshot.
+ * <p>
+ * A {@link CodegenBlock} holds every fact the template reads, so two blocks
+ * with the same key render to the same text. The salt passed to
+ * {@link #computeKey(CodegenBlock, String)} must change whenever the template
+ * or its options change. The cache is safe to use from several threads.
+ * <p>
+ * The modification time of an entry is updated on each hit, so that
+ * {@link #cleanUp()} can bound the number of entries by deleting the least
+ * recently used ones.
+ */
+public class RenderCache {
+
+	public static final int DEFAULT_MAX_ENTRIES = 100_000;
+
+	private static final String ENTRY_SUFFIX = ".txt";
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+	private static final long TEMP_FILE_MAX_AGE_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+	private final File cacheDirectory;
+	private final int maxEntries;
+	private final AtomicInteger hits = new AtomicInteger();
+	private final AtomicInteger misses = new AtomicInteger();
+
+	public RenderCache(File cacheDirectory) {
+		this(cacheDirectory, DEFAULT_MAX_ENTRIES);
+	}
+
+	public RenderCache(File cacheDirectory, int maxEntries) {
+		if (maxEntries < 1)
+			throw new IllegalArgumentException("The maximum number of entries must be positive: " + maxEntries);
+		this.cacheDirectory = cacheDirectory;
+		this.maxEntries = maxEntries;
+		cacheDirectory.mkdirs();
+	}
+
+	/**
+	 * Returns the cached text for the given key, rendering and storing it with
+	 * the given renderer if the key is not present yet.
+	 */
+	public String computeIfAbsent(String key, Supplier<String> renderer) {
+		Path entry = getEntryPath(key);
+		try {
+			if (Files.isRegularFile(entry)) {
+				try {
+					String text = new String(Files.readAllBytes(entry), StandardCharsets.UTF_8);
+					entry.toFile().setLastModified(System.currentTimeMillis());
+					hits.incrementAndGet();
+					return text;
+				} catch (NoSuchFileException e) {
+					// deleted by the clean-up of a concurrent run, rendered again
+				}
+			}
+			misses.incrementAndGet();
+			String text = renderer.get();
+			// write to a temporary file first, so that concurrent readers never see partial entries
+			Path temp = Files.createTempFile(cacheDirectory.toPath(), key, TEMP_FILE_SUFFIX);
+			Files.write(temp, text.getBytes(StandardCharsets.UTF_8));
+			Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return text;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * The file holding the text cached for the given key, if any.
+	 */
+	public Path getEntryPath(String key) {
+		return new File(cacheDirectory, key + ENTRY_SUFFIX).toPath();
+	}
+
+	/**
+	 * Deletes the least recently used entries beyond the maximum number of
+	 * entries, and the temporary files left behind by interrupted runs;
+	 * returns the number of deleted entries.
+	 */
+	public int cleanUp() throws IOException {
+		List<File> entries = new ArrayList<>();
+		long now = System.currentTimeMillis();
+		File[] files = cacheDirectory.listFiles();
+		if (files == null)
+			return 0;
+		for (File file : files) {
+			if (file.getName().endsWith(ENTRY_SUFFIX)) {
+				entries.add(file);
+			} else if (file.getName().endsWith(TEMP_FILE_SUFFIX)
+					&& now - file.lastModified() > TEMP_FILE_MAX_AGE_MILLIS) {
+				Files.deleteIfExists(file.toPath());
+			}
+		}
+		if (entries.size() <= maxEntries)
+			return 0;
+		Map<File, Long> lastModified = new HashMap<>();
+		for (File file : entries) {
+			lastModified.put(file, file.lastModified());
+		}
+		entries.sort(Comparator.comparing(lastModified::get));
+		int deleted = 0;
+		for (File file : entries.subList(0, entries.size() - maxEntries)) {
+			if (Files.deleteIfExists(file.toPath()))
+				deleted++;
+		}
+		return deleted;
+	}
+
+	public int getHits() {
+		return hits.get();
+	}
+
+	public int getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Computes the cache key of a block: a SHA-256 hash of its name, imports,
+	 * parts, assembly connectors and ports with their delegations.
+	 */
+	public static String computeKey(CodegenBlock block, String salt) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		update(digest, salt);
+		update(digest, block.getHumanName());
+		update(digest, Boolean.toString(block.isNameValid()));
+		update(digest, block.getRef());
+		update(digest, block.getImports().size());
+		for (CodegenBlock.Ref imported : block.getImports()) {
+			update(digest, imported);
+		}
+		update(digest, block.getParts().size());
+		for (CodegenBlock.Part part : block.getParts()) {
+			update(digest, part.getName());
+			update(digest, part.getType());
+		}
+		update(digest, block.getAssemblies().size());
+		for (CodegenBlock.Assembly assembly : block.getAssemblies()) {
+			update(digest, assembly.getFirst());
+			update(digest, assembly.getSecond());
+		}
+		update(digest, block.getPorts().size());
+		for (CodegenBlock.Port port : block.getPorts()) {
+			update(digest, port.getName());
+			update(digest, port.getDelegationTargets().size());
+			for (CodegenBlock.EndPath target : port.getDelegationTargets()) {
+				update(digest, target);
+			}
+		}
+		return CodegenUtil.toHex(digest.digest());
+	}
+
+	private static void update(MessageDigest digest, CodegenBlock.Ref ref) {
+		update(digest, ref.getPathSteps());
+		update(digest, ref.getName());
+	}
+
+	private static void update(MessageDigest digest, CodegenBlock.EndPath end) {
+		update(digest, end.getOwnerPath());
+		update(digest, end.getPortName());
+	}
+
+	private static void update(MessageDigest digest, List<String> strings) {
+		update(digest, strings.size());
+		for (String string : strings) {
+			update(digest, string);
+		}
+	}
+
+	private static void update(MessageDigest digest, int number) {
+		update(digest, Integer.toString(number));
+	}
+
+	private static void update(MessageDigest digest, String string) {
+		digest.update(String.valueOf(string).getBytes(StandardCharsets.UTF_8));
+		// terminate each value, so that adjacent values cannot be confused
+		digest.update((byte) 0);
+	}
+}
@@ -0,0 +1,197 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Line based diff of two texts in the unified format, computed with the
+ * greedy algorithm of Myers after trimming the common prefix and suffix. A
+ * last line without a line break is marked as by diff(1).
+ * <p>
+ * Texts differing in more than {@link #MAX_EDIT_DISTANCE} lines are shown as
+ * replaced entirely, which bounds the time and memory spent on a single file.
+ */
+public final class UnifiedDiff {
+
+	private static final int MAX_EDIT_DISTANCE = 1000;
+	private static final int CONTEXT_LINES = 3;
+
+	private static final char EQUAL = ' ';
+	private static final char DELETE = '-';
+	private static final char INSERT = '+';
+	// appended to the last line of a text without a final line break, so that it differs from the same line with one
+	private static final String NO_NEWLINE_MARKER = "\n\\ No newline at end of file";
+
+	private UnifiedDiff() {
+	}
+
+	/**
+	 * Returns the unified diff turning the old text into the new one, empty if
+	 * they have the same lines. A null text stands for a missing file.
+	 */
+	public static String diff(String path, String oldText, String newText) {
+		List<String> oldLines = toLines(oldText);
+		List<String> newLines = toLines(newText);
+		List<String> edits = computeEdits(oldLines, newLines);
+		StringBuilder diff = new StringBuilder();
+		int oldLine = 1;
+		int newLine = 1;
+		int index = 0;
+		while (index < edits.size()) {
+			int firstChange = nextChange(edits, index);
+			if (firstChange == edits.size())
+				break;
+			// extend the hunk while the changes are separated by at most twice the context
+			int lastChange = firstChange;
+			for (int next = nextChange(edits, firstChange + 1); next < edits.size()
+					&& next - lastChange <= 2 * CONTEXT_LINES + 1; next = nextChange(edits, next + 1)) {
+				lastChange = next;
+			}
+			int start = Math.max(index, firstChange - CONTEXT_LINES);
+			int end = Math.min(edits.size(), lastChange + 1 + CONTEXT_LINES);
+			for (int i = index; i < start; i++) {
+				oldLine++;
+				newLine++;
+			}
+			int oldCount = 0;
+			int newCount = 0;
+			for (int i = start; i < end; i++) {
+				char kind = edits.get(i).charAt(0);
+				if (kind != INSERT)
+					oldCount++;
+				if (kind != DELETE)
+					newCount++;
+			}
+			if (diff.length() == 0) {
+				diff.append("--- ").append(oldText == null ? "/dev/null" : "a/" + path).append('\n');
+				diff.append("+++ ").append(newText == null ? "/dev/null" : "b/" + path).append('\n');
+			}
+			diff.append("@@ -").append(oldCount == 0 ? oldLine - 1 : oldLine).append(',').append(oldCount)
+					.append(" +").append(newCount == 0 ? newLine - 1 : newLine).append(',').append(newCount)
+					.append(" @@\n");
+			for (int i = start; i < end; i++) {
+				diff.append(edits.get(i)).append('\n');
+			}
+			oldLine += oldCount;
+			newLine += newCount;
+			index = end;
+		}
+		return diff.toString();
+	}
+
+	private static int nextChange(List<String> edits, int from) {
+		int index = from;
+		while (index < edits.size() && edits.get(index).charAt(0) == EQUAL) {
+			index++;
+		}
+		return index;
+	}
+
+	private static List<String> toLines(String text) {
+		if (text == null || text.isEmpty())
+			return Collections.emptyList();
+		List<String> lines = new ArrayList<>(Arrays.asList(text.split("\r?\n", -1)));
+		int last = lines.size() - 1;
+		if (lines.get(last).isEmpty()) {
+			lines.remove(last);
+		} else {
+			lines.set(last, lines.get(last) + NO_NEWLINE_MARKER);
+		}
+		return lines;
+	}
+
+	/**
+	 * The lines of the old and the new text, each prefixed by its kind of edit.
+	 */
+	private static List<String> computeEdits(List<String> oldLines, List<String> newLines) {
+		int prefix = 0;
+		while (prefix < oldLines.size() && prefix < newLines.size()
+				&& oldLines.get(prefix).equals(newLines.get(prefix))) {
+			prefix++;
+		}
+		int suffix = 0;
+		while (suffix < oldLines.size() - prefix && suffix < newLines.size() - prefix
+				&& oldLines.get(oldLines.size() - 1 - suffix).equals(newLines.get(newLines.size() - 1 - suffix))) {
+			suffix++;
+		}
+		List<String> edits = new ArrayList<>();
+		for (String line : oldLines.subList(0, prefix)) {
+			edits.add(EQUAL + line);
+		}
+		List<String> oldMiddle = oldLines.subList(prefix, oldLines.size() - suffix);
+		List<String> newMiddle = newLines.subList(prefix, newLines.size() - suffix);
+		if (!computeShortestEdits(oldMiddle, newMiddle, edits)) {
+			for (String line : oldMiddle) {
+				edits.add(DELETE + line);
+			}
+			for (String line : newMiddle) {
+				edits.add(INSERT + line);
+			}
+		}
+		for (String line : oldLines.subList(oldLines.size() - suffix, oldLines.size())) {
+			edits.add(EQUAL + line);
+		}
+		return edits;
+	}
+
+	/**
+	 * Appends a shortest edit script to the given edits; returns false without
+	 * appending anything if it is longer than {@link #MAX_EDIT_DISTANCE}.
+	 */
+	private static boolean computeShortestEdits(List<String> a, List<String> b, List<String> edits) {
+		int n = a.size();
+		int m = b.size();
+		int max = Math.min(n + m, MAX_EDIT_DISTANCE);
+		int offset = max + 1;
+		int[] v = new int[2 * max + 3];
+		// furthest reaching paths before each step, diagonals -d..d stored from index 0
+		List<int[]> trace = new ArrayList<>();
+		for (int d = 0; d <= max; d++) {
+			trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+			for (int k = -d; k <= d; k += 2) {
+				int x = k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]) ? v[offset + k + 1]
+						: v[offset + k - 1] + 1;
+				int y = x - k;
+				while (x < n && y < m && a.get(x).equals(b.get(y))) {
+					x++;
+					y++;
+				}
+				v[offset + k] = x;
+				if (x >= n && y >= m) {
+					appendBacktracked(a, b, trace, edits);
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static void appendBacktracked(List<String> a, List<String> b, List<int[]> trace, List<String> edits) {
+		List<String> reversed = new ArrayList<>();
+		int x = a.size();
+		int y = b.size();
+		for (int d = trace.size() - 1; d > 0; d--) {
+			int[] v = trace.get(d);
+			int k = x - y;
+			int previousK = k == -d || (k != d && v[k - 1 + d] < v[k + 1 + d]) ? k + 1 : k - 1;
+			int previousX = v[previousK + d];
+			int previousY = previousX - previousK;
+			while (x > previousX && y > previousY) {
+				reversed.add(EQUAL + a.get(--x));
+				y--;
+			}
+			if (x == previousX) {
+				reversed.add(INSERT + b.get(--y));
+			} else {
+				reversed.add(DELETE + a.get(--x));
+			}
+		}
+		while (x > 0) {
+			reversed.add(EQUAL + a.get(--x));
+		}
+		Collections.reverse(reversed);
+		edits.addAll(reversed);
+	}
+}
@@ -0,0 +1,187 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * File system outlet that only touches files whose content has changed.
+ * <p>
+ * The path, size, SHA-256 hash and modification time of every generated file
+ * is recorded in a manifest in the output root. A file whose recorded size and
+ * hash match the new content is left alone if it is still on disk as recorded:
+ * with the recorded size and modification time, or, if only the latter
+ * differs, with the recorded hash. So a file edited by hand is generated
+ * again, unless it was edited within the resolution of the modification times
+ * of the file system without changing its size. Files recorded by the previous
+ * run but not generated again are deleted, and the manifest itself is only
+ * rewritten if it changed. Thus a run on an unchanged model writes nothing.
+ */
+public class WriteAvoidingCodeOutlet extends FileSystemCodeOutlet {
+
+	public static final String MANIFEST_FILE_NAME = ".v4md-manifest";
+
+	private static final class Entry {
+		private final long size;
+		private final String hash;
+		private final long lastModified;
+
+		private Entry(long size, String hash, long lastModified) {
+			this.size = size;
+			this.hash = hash;
+			this.lastModified = lastModified;
+		}
+
+		private boolean hasContent(long size, String hash) {
+			return this.size == size && this.hash.equals(hash);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Entry))
+				return false;
+			Entry other = (Entry) obj;
+			return hasContent(other.size, other.hash) && lastModified == other.lastModified;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash.hashCode();
+		}
+	}
+
+	private final Map<String, Entry> previousEntries;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final AtomicInteger written = new AtomicInteger();
+	private final AtomicInteger unchanged = new AtomicInteger();
+
+	public WriteAvoidingCodeOutlet(File root) throws IOException {
+		super(root);
+		previousEntries = readManifest();
+	}
+
+	@Override
+	public void writeFile(String path, String content) throws IOException {
+		byte[] bytes = encode(content);
+		String hash = hash(bytes);
+		File file = resolve(path);
+		Entry previousEntry = previousEntries.get(path);
+		if (previousEntry != null && previousEntry.hasContent(bytes.length, hash) && isOnDisk(file, previousEntry)) {
+			entries.put(path, new Entry(bytes.length, hash, file.lastModified()));
+			unchanged.incrementAndGet();
+		} else {
+			writeBytes(path, bytes);
+			entries.put(path, new Entry(bytes.length, hash, file.lastModified()));
+			recordFileWritten(bytes.length);
+			written.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Whether the file still has the content recorded by the entry; it is
+	 * read only if its modification time differs from the recorded one.
+	 */
+	private static boolean isOnDisk(File file, Entry entry) throws IOException {
+		if (!file.isFile() || file.length() != entry.size)
+			return false;
+		return file.lastModified() == entry.lastModified
+				|| entry.hash.equals(hash(Files.readAllBytes(file.toPath())));
+	}
+
+	@Override
+	public void ensureFile(String path) throws IOException {
+		File file = resolve(path);
+		Entry previousEntry = previousEntries.get(path);
+		if (file.exists()) {
+			boolean recorded = previousEntry != null && previousEntry.size == file.length()
+					&& previousEntry.lastModified == file.lastModified();
+			entries.put(path, recorded ? previousEntry
+					: new Entry(file.length(), hash(Files.readAllBytes(file.toPath())), file.lastModified()));
+			unchanged.incrementAndGet();
+		} else {
+			super.ensureFile(path);
+			entries.put(path, new Entry(0, hash(new byte[0]), file.lastModified()));
+			written.incrementAndGet();
+		}
+	}
+
+	@Override
+	public void deleteFile(String path) throws IOException {
+		entries.remove(path);
+		super.deleteFile(path);
+	}
+
+	/**
+	 * Deletes orphaned files and updates the manifest if needed.
+	 */
+	@Override
+	public void close() throws IOException {
+		int deleted = 0;
+		for (String path : previousEntries.keySet()) {
+			if (!entries.containsKey(path)) {
+				File file = resolve(path);
+				if (file.delete()) {
+					deleted++;
+					deleteEmptyParents(file);
+				}
+			}
+		}
+		if (!entries.equals(previousEntries)) {
+			writeManifest();
+		}
+		System.out.println(String.format("Output manifest: %d files written, %d unchanged, %d deleted", 
+				written.get(), unchanged.get(), deleted));
+	}
+
+	private Map<String, Entry> readManifest() throws IOException {
+		File manifest = new File(root, MANIFEST_FILE_NAME);
+		if (!manifest.isFile())
+			return Collections.emptyMap();
+		Map<String, Entry> result = new HashMap<>();
+		try (BufferedReader reader = Files.newBufferedReader(manifest.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split("\t");
+				if (fields.length == 4) {
+					result.put(fields[0], new Entry(Long.parseLong(fields[1]), fields[2], Long.parseLong(fields[3])));
+				} else if (fields.length == 3) {
+					// written without modification times, the files are compared by their hash
+					result.put(fields[0], new Entry(Long.parseLong(fields[1]), fields[2], -1));
+				}
+			}
+		}
+		return result;
+	}
+
+	private void writeManifest() throws IOException {
+		List<String> paths = new ArrayList<>(entries.keySet());
+		Collections.sort(paths);
+		StringBuilder manifest = new StringBuilder();
+		for (String path : paths) {
+			Entry entry = entries.get(path);
+			manifest.append(path).append('\t').append(entry.size).append('\t').append(entry.hash).append('\t')
+					.append(entry.lastModified).append('\n');
+		}
+		root.mkdirs();
+		Files.write(new File(root, MANIFEST_FILE_NAME).toPath(), manifest.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String hash(byte[] content) {
+		try {
+			return CodegenUtil.toHex(MessageDigest.getInstance("SHA-256").digest(content));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.incquerylabs.magicdraw.plugin.example.codegen;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes generated files directly as entries of a zip archive, without
+ * creating them on the file system first.
+ * <p>
+ * Entries are written in the order the files are generated; writes from
+ * several threads are serialized. As entries cannot be removed from the
+ * archive being written, only files not written yet may be deleted.
+ */
+public class ZipCodeOutlet implements CodeOutlet {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final File archive;
+	private final ZipOutputStream zip;
+	private final Set<String> entries = new HashSet<>();
+	private volatile CodegenStatistics statistics = null;
+
+	/**
+	 * @param compressionLevel
+	 *            0-9, or {@link java.util.zip.Deflater#DEFAULT_COMPRESSION}
+	 */
+	public ZipCodeOutlet(File archive, int compressionLevel) throws IOException {
+		this.archive = archive;
+		File parent = archive.getAbsoluteFile().getParentFile();
+		if (parent != null)
+			parent.mkdirs();
+		this.zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(archive), BUFFER_SIZE));
+		zip.setLevel(compressionLevel);
+	}
+
+	public File getArchive() {
+		return archive;
+	}
+
+	@Override
+	public void writeFile(String path, String content) throws IOException {
+		// encode outside of the lock, so that only the compression is serialized
+		byte[] bytes = FileSystemCodeOutlet.encode(content);
+		synchronized (this) {
+			putEntry(path, bytes);
+		}
+		if (statistics != null)
+			statistics.recordFileWritten(bytes.length);
+	}
+
+	@Override
+	public void setStatistics(CodegenStatistics statistics) {
+		this.statistics = statistics;
+	}
+
+	@Override
+	public synchronized void ensureFile(String path) throws IOException {
+		if (!entries.contains(path))
+			putEntry(path, new byte[0]);
+	}
+
+	@Override
+	public synchronized void deleteFile(String path) throws IOException {
+		if (entries.contains(path))
+			throw new IOException("Cannot delete " + path + ", it is already written to " + archive);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		zip.close();
+		System.out.println(String.format("Zip archive: %d entries written to %s", entries.size(), archive));
+	}
+
+	private void putEntry(String path, byte[] bytes) throws IOException {
+		if (!entries.add(path))
+			throw new IOException("Duplicate entry " + path + " in " + archive);
+		zip.putNextEntry(new ZipEntry(path));
+		zip.write(bytes);
+		zip.closeEntry();
+	}
+}
@@ -0,0 +1,154 @@
+package com.incquerylabs.magicdraw.plugin.example.commands;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.incquerylabs.magicdraw.plugin.example.codegen.CodegenPatternLoader;
+import com.nomagic.magicdraw.commandline.CommandLineAction;
+import com.nomagic.magicdraw.core.Application;
+import com.nomagic.magicdraw.core.Project;
+
+/**
+ * Keeps MagicDraw running and generates code for the jobs received on a local
+ * socket, so that subsequent jobs do not pay for starting MagicDraw, loading the
+ * project and building the matchers again.
+ * <p>
+ * Requests are lines of tab-separated fields:
+ * <ul>
+ * <li><code>generate &lt;project path&gt; &lt;output dir&gt; [&lt;option&gt; ...]</code>,
+ * with the options of {@link CodeGenRunner}</li>
+ * <li><code>shutdown</code></li>
+ * </ul>
+ * Each request is answered by a single line starting with OK or ERROR. Loaded
+ * projects, with their query engines and prepared patterns, are reused as long
+ * as their file is unchanged.
+ */
+public class CodeGenDaemon implements CommandLineAction {
+
+	public final static int DEFAULT_PORT = 4711;
+	private final static String PORT_OPTION = "--port=";
+	private final static String GENERATE_COMMAND = "generate";
+	private final static String SHUTDOWN_COMMAND = "shutdown";
+
+	private static class LoadedProject {
+		private final Project project;
+		private final long lastModified;
+		private final long length;
+		// the patterns stay prepared on the query engine of the project until it is loaded again
+		private final CodegenPatternLoader patternLoader = new CodegenPatternLoader();
+
+		LoadedProject(Project project, long lastModified, long length) {
+			this.project = project;
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		boolean isUpToDate(File file) {
+			return lastModified == file.lastModified() && length == file.length();
+		}
+	}
+
+	private final CodeGenRunner runner = new CodeGenRunner();
+	private final Map<String, LoadedProject> projects = new HashMap<>();
+	private boolean running = true;
+
+	@Override
+	public byte execute(String[] args) {
+		int port = DEFAULT_PORT;
+		for (String arg : args) {
+			if (arg.startsWith(PORT_OPTION))
+				port = Integer.parseInt(arg.substring(PORT_OPTION.length()));
+		}
+		try (ServerSocket server = new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+			System.out.println("Code generation daemon listening on " + server.getLocalSocketAddress());
+			while (running) {
+				try (Socket client = server.accept()) {
+					serve(client);
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			return 1;
+		} finally {
+			projects.values().forEach(this::closeProject);
+			projects.clear();
+		}
+		return 0;
+	}
+
+	private void serve(Socket client) throws IOException {
+		BufferedReader reader = new BufferedReader(
+				new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+		PrintWriter writer = new PrintWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8),
+				true);
+		String line;
+		while (running && (line = reader.readLine()) != null) {
+			if (!line.isEmpty())
+				writer.println(handle(line.split("\t")));
+		}
+	}
+
+	private String handle(String[] request) {
+		long start = System.nanoTime();
+		try {
+			switch (request[0]) {
+			case GENERATE_COMMAND:
+				if (request.length < 3)
+					return "ERROR Usage: generate<TAB>project path<TAB>output dir[<TAB>option...]";
+				LoadedProject loaded = getProject(new File(request[1]));
+				int blocks = runner.generate(loaded.project, new File(request[2]), CodeGenRunner.Options.parse(request, 3),
+						loaded.patternLoader);
+				return String.format("OK %d blocks generated in %d ms", blocks, (System.nanoTime() - start) / 1_000_000);
+			case SHUTDOWN_COMMAND:
+				running = false;
+				return "OK Shutting down";
+			default:
+				return "ERROR Unknown command " + request[0];
+			}
+		} catch (Exception | AssertionError e) {
+			// loading a project through the test framework may fail with an assertion, the daemon serves on
+			e.printStackTrace();
+			// the answer must fit in a single line
+			return "ERROR " + String.valueOf(e).replaceAll("[\\r\\n]+", " ");
+		}
+	}
+
+	/**
+	 * Returns the loaded project of the given file as the active project,
+	 * loading it again if the file has changed since it was loaded.
+	 */
+	private LoadedProject getProject(File file) throws IOException {
+		String path = file.getCanonicalPath();
+		LoadedProject loaded = projects.get(path);
+		if (loaded != null && loaded.isUpToDate(file)) {
+			Application.getInstance().getProjectsManager().setActiveProject(loaded.project);
+			return loaded;
+		}
+		if (loaded != null) {
+			closeProject(loaded);
+			projects.remove(path);
+		}
+		// take the file stamp before loading, so that changes during loading are not missed
+		long lastModified = file.lastModified();
+		long length = file.length();
+		loaded = new LoadedProject(runner.loadProject(path), lastModified, length);
+		projects.put(path, loaded);
+		return loaded;
+	}
+
+	private void closeProject(LoadedProject loaded) {
+		runner.closeProject(loaded.project);
+	}
+}
@@ -1,19 +1,49 @@
 package com.incquerylabs.magicdraw.plugin.example.commands;
 		
-import static org.junit.Assert.assertNotNull;
-import static org.junit.Assert.assertTrue;
-
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
 
 import org.eclipse.viatra.query.runtime.api.AdvancedViatraQueryEngine;
 
+import com.incquerylabs.magicdraw.plugin.example.codegen.CodeEmitter;
+import com.incquerylabs.magicdraw.plugin.example.codegen.CodeEmitters;
+import com.incquerylabs.magicdraw.plugin.example.codegen.CodeOutlet;
+import com.incquerylabs.magicdraw.plugin.example.codegen.CodegenBlock;
+import com.incquerylabs.magicdraw.plugin.example.codegen.CodegenPatternLoader;
+import com.incquerylabs.magicdraw.plugin.example.codegen.CodegenStatistics;
+import com.incquerylabs.magicdraw.plugin.example.codegen.DryRunCodeOutlet;
+import com.incquerylabs.magicdraw.plugin.example.codegen.FileSystemCodeOutlet;
 import com.incquerylabs.magicdraw.plugin.example.codegen.GenPython;
+import com.incquerylabs.magicdraw.plugin.example.codegen.PipelinedCodeOutlet;
+import com.incquerylabs.magicdraw.plugin.example.codegen.PythonEmitter;
+import com.incquerylabs.magicdraw.plugin.example.codegen.WriteAvoidingCodeOutlet;
+import com.incquerylabs.magicdraw.plugin.example.codegen.ZipCodeOutlet;
 import com.incquerylabs.v4md.ViatraQueryAdapter;
 import com.nomagic.magicdraw.commandline.CommandLineAction;
+import com.nomagic.magicdraw.core.Application;
 import com.nomagic.magicdraw.core.Project;
+import com.nomagic.magicdraw.core.ProjectsManager;
 import com.nomagic.magicdraw.tests.MagicDrawTestCase;
 import com.nomagic.uml2.ext.jmi.helpers.StereotypesHelper;
 import com.nomagic.uml2.ext.magicdraw.classes.mdkernel.Package;
@@ -22,53 +52,500 @@ import com.nomagic.uml2.ext.magicdraw.mdprofiles.Stereotype;
 
 public class CodeGenRunner implements CommandLineAction {
 
+	public final static String ENGINE_ID = CodeGenRunner.class.getName();
 	private final static String OUTPUT_DIR = "./target/codegen";
+	private final static String SUMMARY_FILE = "./target/codegen-summary.tsv";
+	private final static String PROJECT_FILE_EXTENSION = ".mdzip";
+	private final static String PARALLELISM_OPTION = "--parallelism=";
+	private final static String RENDER_CACHE_OPTION = "--render-cache=";
+	private final static String WRITE_AVOIDANCE_OPTION = "--write-avoidance";
+	private final static String PIPELINE_OPTION = "--pipeline=";
+	private final static String ZIP_OPTION = "--zip=";
+	private final static String ZIP_LEVEL_OPTION = "--zip-level=";
+	private final static String DRY_RUN_OPTION = "--dry-run";
+	private final static String DIFF_OPTION = "--diff=";
+	private final static String TARGETS_OPTION = "--targets=";
+	private final static String PYTHON_SLOTS_OPTION = "--python-slots";
+	private final static String PYTHON_LAZY_PARTS_OPTION = "--python-lazy-parts";
+	private final static String PYTHON_FLAT_WIRING_OPTION = "--python-flat-wiring";
+	private final static String PYTHON_PACKAGE_MODULES_OPTION = "--python-package-modules";
+	
+	/**
+	 * Options of a code generation job.
+	 */
+	public static class Options {
+		int parallelism = 1;
+		File renderCacheDirectory = null;
+		boolean writeAvoidance = false;
+		int pipelineCapacity = 0;
+		File zipArchive = null;
+		int zipLevel = Deflater.DEFAULT_COMPRESSION;
+		boolean dryRun = false;
+		File diffFile = null;
+		List<String> targets = Collections.singletonList(PythonEmitter.NAME);
+		boolean pythonSlots = false;
+		boolean pythonLazyParts = false;
+		boolean pythonFlatWiring = false;
+		boolean pythonPackageModules = false;
+		
+		/**
+		 * Parses the options starting at the given index; unknown options are ignored.
+		 */
+		public static Options parse(String[] args, int from) {
+			Options options = new Options();
+			for (int i = from; i < args.length; i++) {
+				if (args[i].startsWith(PARALLELISM_OPTION)) {
+					options.parallelism = Integer.parseInt(args[i].substring(PARALLELISM_OPTION.length()));
+				} else if (args[i].startsWith(RENDER_CACHE_OPTION)) {
+					options.renderCacheDirectory = new File(args[i].substring(RENDER_CACHE_OPTION.length()));
+				} else if (args[i].equals(WRITE_AVOIDANCE_OPTION)) {
+					options.writeAvoidance = true;
+				} else if (args[i].startsWith(PIPELINE_OPTION)) {
+					options.pipelineCapacity = Integer.parseInt(args[i].substring(PIPELINE_OPTION.length()));
+				} else if (args[i].startsWith(ZIP_OPTION)) {
+					options.zipArchive = new File(args[i].substring(ZIP_OPTION.length()));
+				} else if (args[i].startsWith(ZIP_LEVEL_OPTION)) {
+					options.zipLevel = Integer.parseInt(args[i].substring(ZIP_LEVEL_OPTION.length()));
+				} else if (args[i].equals(DRY_RUN_OPTION)) {
+					options.dryRun = true;
+				} else if (args[i].startsWith(DIFF_OPTION)) {
+					options.dryRun = true;
+					options.diffFile = new File(args[i].substring(DIFF_OPTION.length()));
+				} else if (args[i].startsWith(TARGETS_OPTION)) {
+					options.targets = Arrays.asList(args[i].substring(TARGETS_OPTION.length()).split(","));
+				} else if (args[i].equals(PYTHON_SLOTS_OPTION)) {
+					options.pythonSlots = true;
+				} else if (args[i].equals(PYTHON_LAZY_PARTS_OPTION)) {
+					options.pythonLazyParts = true;
+				} else if (args[i].equals(PYTHON_FLAT_WIRING_OPTION)) {
+					options.pythonFlatWiring = true;
+				} else if (args[i].equals(PYTHON_PACKAGE_MODULES_OPTION)) {
+					options.pythonPackageModules = true;
+				}
+			}
+			return options;
+		}
+		
+		/**
+		 * The options of a project in a batch: its archive and diff, if any, are prefixed with the project name.
+		 */
+		Options forProject(String projectName) {
+			Options options = new Options();
+			options.parallelism = parallelism;
+			options.renderCacheDirectory = renderCacheDirectory;
+			options.writeAvoidance = writeAvoidance;
+			options.pipelineCapacity = pipelineCapacity;
+			options.zipArchive = zipArchive == null ? null 
+					: new File(zipArchive.getAbsoluteFile().getParentFile(), projectName + "_" + zipArchive.getName());
+			options.zipLevel = zipLevel;
+			options.dryRun = dryRun;
+			options.targets = targets;
+			options.pythonSlots = pythonSlots;
+			options.pythonLazyParts = pythonLazyParts;
+			options.pythonFlatWiring = pythonFlatWiring;
+			options.pythonPackageModules = pythonPackageModules;
+			options.diffFile = diffFile == null ? null 
+					: new File(diffFile.getAbsoluteFile().getParentFile(), projectName + "_" + diffFile.getName());
+			return options;
+		}
+	}
 	
+	/**
+	 * Loads the project file; a missing file or a project that cannot be loaded is reported as an
+	 * {@link IOException}, so that callers serving several projects can go on with the others.
+	 */
 	public Project loadProject(String testFile) throws IOException {
 		//String filePath = FileSystems.getDefault().getPath(testFile).normalize().toAbsolutePath().toString();
     	File file = new File(testFile);
     	String path = file.getCanonicalPath();
     	
-    	assertTrue(path, file.exists());
+    	if (!file.isFile())
+    		throw new FileNotFoundException(path);
     	Project project = MagicDrawTestCase.loadProject(path);
-    	assertNotNull(project);
+    	if (project == null)
+    		throw new IOException("Cannot load the project " + path);
     	return project;
     }
 
 
 	@Override
 	public byte execute(String[] args) {
-		if(args.length >= 1 && args[0].contains("mdzip")) {
-			String projectPath = args[0];
+		List<File> projectFiles;
+		try {
+			projectFiles = resolveProjectFiles(args);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return 1;
+		}
+		if (projectFiles.isEmpty())
+			return 0;
+		try {
+			return generateAll(projectFiles, Options.parse(args, 0)) == 0 ? (byte) 0 : (byte) 1;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return 1;
+		}
+	}
+
+	/**
+	 * Generates the code of the given projects in a single session. A single project is generated into the output directory, 
+	 * multiple projects into its subdirectories named after the project files.
+	 * <p>
+	 * While a project is rendered and written on a background thread, the next one is loaded and collected; 
+	 * each project is closed as soon as its blocks are collected, so at most two projects are held in memory.
+	 * A project that fails is recorded in the summary and the batch goes on with the next one.
+	 * 
+	 * @return the number of projects that failed
+	 */
+	public int generateAll(List<File> projectFiles, Options options) throws IOException {
+		boolean batch = projectFiles.size() > 1;
+		List<ProjectSummary> summaries = new ArrayList<>();
+		ExecutorService renderer = Executors.newSingleThreadExecutor();
+		Future<?> rendering = null;
+		try {
+			for (File projectFile : projectFiles) {
+				ProjectSummary summary = new ProjectSummary(projectFile);
+				summaries.add(summary);
+				String name = getBaseName(projectFile);
+				File outputDir = batch ? new File(OUTPUT_DIR, name) : new File(OUTPUT_DIR);
+				Options projectOptions = batch ? options.forProject(name) : options;
+				Generation generation = null;
+				try {
+					long start = System.nanoTime();
+					Project project = loadProject(projectFile.getPath());
+					long loaded = System.nanoTime();
+					summary.loadMillis = (loaded - start) / 1_000_000;
+					try {
+						generation = collect(project, outputDir, projectOptions);
+						summary.errors = generation.getErrorCount();
+						summary.statistics = generation.getStatistics();
+					} finally {
+						// the collected blocks do not refer to the model any more
+						closeProject(project);
+					}
+					summary.collectMillis = (System.nanoTime() - loaded) / 1_000_000;
+				} catch (Exception | AssertionError e) {
+					// the test framework loading the project may fail with an assertion
+					summary.fail(e);
+				}
+				// render one project at a time, so that collected projects do not pile up
+				awaitRendering(rendering);
+				if (generation != null) {
+					Generation collected = generation;
+					rendering = renderer.submit(() -> {
+						long start = System.nanoTime();
+						try {
+							summary.blocks = collected.render();
+						} catch (Exception e) {
+							summary.fail(e);
+						}
+						summary.renderMillis = (System.nanoTime() - start) / 1_000_000;
+					});
+				}
+			}
+			awaitRendering(rendering);
+		} finally {
+			renderer.shutdown();
+			writeSummaries(summaries);
+		}
+		return (int) summaries.stream().filter(ProjectSummary::isFailed).count();
+	}
+
+	/**
+	 * Collected blocks of a project, ready to be rendered without the model.
+	 */
+	public static class Generation {
+		private final GenPython gen;
+		private final CodeOutlet outlet;
+		private final List<CodegenBlock> blocks;
+		private final File reportFile;
+
+		Generation(GenPython gen, CodeOutlet outlet, List<CodegenBlock> blocks, File reportFile) {
+			this.gen = gen;
+			this.outlet = outlet;
+			this.blocks = blocks;
+			this.reportFile = reportFile;
+		}
+
+		public int getErrorCount() {
+			return gen.getErrorCount();
+		}
+
+		public CodegenStatistics getStatistics() {
+			return gen.getStatistics();
+		}
 
-			Project project;
+		/**
+		 * Renders and writes the blocks, then closes the outlet and writes the statistics report; 
+		 * returns the number of blocks.
+		 */
+		public int render() throws IOException {
+			int blockCount;
 			try {
-				project = loadProject(projectPath);
-				String engineId = CodeGenRunner.class.getName();
-
-				ViatraQueryAdapter adapter = ViatraQueryAdapter.getOrCreateAdapter(project, engineId);
-				AdvancedViatraQueryEngine engine = adapter.getEngine();
-				
-				Profile mdSkeletonProfile = StereotypesHelper.getProfile(project, "MD Skeleton Profile");
-				Stereotype codeGenScopeStereotype = StereotypesHelper.getStereotype(project, "CodeGenerationScope", mdSkeletonProfile);
-				
-				StereotypesHelper.getExtendedElements(codeGenScopeStereotype).forEach(scopePackage -> {
-					GenPython gen = new GenPython(engine, 
-							OUTPUT_DIR, 
-							java.util.Collections.emptyList(), 
-							Arrays.asList((Package)scopePackage));
-					gen.doGen();
-				});
-				
-				adapter.dispose(engineId);
-			} catch (IOException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
+				blockCount = gen.doRender(blocks);
+			} finally {
+				outlet.close();
 			}
+			if (reportFile != null)
+				gen.getStatistics().writeJson(reportFile);
+			return blockCount;
+		}
+	}
+
+	/**
+	 * Generates the code of all CodeGenerationScope packages of a loaded project. 
+	 * The query engine of the project, identified by {@link #ENGINE_ID}, is kept for later runs.
+	 * 
+	 * @return the number of generated blocks
+	 */
+	public int generate(Project project, File outputDir, Options options) throws IOException {
+		return generate(project, outputDir, options, new CodegenPatternLoader());
+	}
+
+	/**
+	 * Generates the code of a loaded project like {@link #generate(Project, File, Options)}, with a pattern loader 
+	 * kept by the caller for the project: the patterns are parsed and prepared on the query engine by the first run only, 
+	 * so the loader must be dropped when the project is loaded again.
+	 */
+	public int generate(Project project, File outputDir, Options options, CodegenPatternLoader patternLoader)
+			throws IOException {
+		return collect(project, outputDir, options, patternLoader).render();
+	}
+
+	/**
+	 * Creates the emitter of a target language, configured with the options of that language.
+	 */
+	private static CodeEmitter createEmitter(String target, Options options) {
+		CodeEmitter emitter = CodeEmitters.create(target);
+		if (emitter instanceof PythonEmitter) {
+			((PythonEmitter) emitter).setSlots(options.pythonSlots);
+			((PythonEmitter) emitter).setLazyParts(options.pythonLazyParts);
+			((PythonEmitter) emitter).setFlatWiring(options.pythonFlatWiring);
+			((PythonEmitter) emitter).setPackageModules(options.pythonPackageModules);
 		}
+		return emitter;
+	}
+	
+	/**
+	 * Collects the blocks of all CodeGenerationScope packages of a loaded project, to be rendered later.
+	 */
+	public Generation collect(Project project, File outputDir, Options options) throws IOException {
+		return collect(project, outputDir, options, new CodegenPatternLoader());
+	}
+
+	private Generation collect(Project project, File outputDir, Options options, CodegenPatternLoader patternLoader)
+			throws IOException {
+		long engineStart = System.nanoTime();
+		ViatraQueryAdapter adapter = ViatraQueryAdapter.getOrCreateAdapter(project, ENGINE_ID);
+		AdvancedViatraQueryEngine engine = adapter.getEngine();
+		// next to nothing if the engine of the project is kept from an earlier run
+		long engineNanos = System.nanoTime() - engineStart;
 		
+		Profile mdSkeletonProfile = StereotypesHelper.getProfile(project, "MD Skeleton Profile");
+		Stereotype codeGenScopeStereotype = StereotypesHelper.getStereotype(project, "CodeGenerationScope", mdSkeletonProfile);
 		
-		return 0;
+		CodeOutlet outlet;
+		if (options.dryRun) {
+			// compare with the output directory, write nothing but the diff
+			outlet = createDryRunOutlet(outputDir, options.diffFile);
+		} else if (options.zipArchive != null) {
+			// no output directory at all, the archive is the only result
+			outlet = new ZipCodeOutlet(options.zipArchive, options.zipLevel);
+		} else if (options.writeAvoidance) {
+			outlet = new WriteAvoidingCodeOutlet(outputDir);
+		} else {
+			outlet = new FileSystemCodeOutlet(outputDir);
+		}
+		if (options.pipelineCapacity > 0) {
+			// write on a separate thread, while the next blocks are rendered
+			outlet = new PipelinedCodeOutlet(outlet, options.pipelineCapacity);
+		}
+		// all scopes in a single run: the patterns are parsed and prepared once, 
+		// blocks reachable from several scopes are generated once 
+		// and the blocks of all scopes are rendered together
+		List<Package> scopePackages = StereotypesHelper.getExtendedElements(codeGenScopeStereotype).stream()
+				.filter(Package.class::isInstance)
+				.map(Package.class::cast)
+				.collect(Collectors.toList());
+		GenPython gen = new GenPython(engine, 
+				outputDir.getPath(), 
+				java.util.Collections.emptyList(), 
+				scopePackages,
+				patternLoader);
+		gen.setEngineNanos(engineNanos);
+		gen.setParallelism(options.parallelism);
+		// one traversal of the model for all target languages
+		gen.setEmitters(options.targets.stream().map(target -> createEmitter(target, options)).collect(Collectors.toList()));
+		gen.setCodeOutlet(outlet);
+		if (options.renderCacheDirectory != null) {
+			gen.setRenderCacheDirectory(options.renderCacheDirectory);
+		}
+		try {
+			// the report is put next to the output, so that it is neither archived nor deleted as a stale file
+			File output = (options.zipArchive != null ? options.zipArchive : outputDir).getAbsoluteFile();
+			File reportFile = options.dryRun ? null 
+					: new File(output.getParentFile(), output.getName() + CodegenStatistics.REPORT_FILE_SUFFIX);
+			return new Generation(gen, outlet, gen.doCollect(), reportFile);
+		} catch (Throwable e) {
+			// the Xtend generator may also throw checked exceptions that are not declared
+			try {
+				outlet.close();
+			} catch (IOException closing) {
+				e.addSuppressed(closing);
+			}
+			throw e;
+		}
+	}
+
+	private static CodeOutlet createDryRunOutlet(File outputDir, File diffFile) throws IOException {
+		if (diffFile == null)
+			return new DryRunCodeOutlet(outputDir, null);
+		PrintStream diff = new PrintStream(new FileOutputStream(diffFile), false, Charset.defaultCharset().name());
+		return new DryRunCodeOutlet(outputDir, diff) {
+			@Override
+			public void close() throws IOException {
+				try {
+					super.close();
+				} finally {
+					diff.close();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Disposes the query engine of the project and closes it without saving.
+	 */
+	public void closeProject(Project project) {
+		ViatraQueryAdapter.getOrCreateAdapter(project, ENGINE_ID).dispose(ENGINE_ID);
+		ProjectsManager projectsManager = Application.getInstance().getProjectsManager();
+		projectsManager.setActiveProject(project);
+		projectsManager.closeProjectNoSave();
+	}
+
+	/**
+	 * Resolves the project files given as arguments, in the order given. An argument may be a project file, 
+	 * a directory containing project files, a glob pattern such as models/&#42;&#42;/&#42;.mdzip, 
+	 * or @ followed by the path of a file listing such arguments line by line.
+	 * Other arguments that are not existing files, such as the arguments of the MagicDraw launcher, are ignored;
+	 * missing project files are kept, so that they are reported as failed projects.
+	 */
+	public static List<File> resolveProjectFiles(String[] args) throws IOException {
+		List<File> projectFiles = new ArrayList<>();
+		for (String arg : args) {
+			if (!arg.startsWith("--"))
+				resolveProjectFiles(arg, projectFiles);
+		}
+		return projectFiles;
+	}
+
+	private static void resolveProjectFiles(String spec, List<File> projectFiles) throws IOException {
+		if (spec.startsWith("@")) {
+			for (String line : Files.readAllLines(Paths.get(spec.substring(1)))) {
+				line = line.trim();
+				if (!line.isEmpty() && !line.startsWith("#"))
+					resolveProjectFiles(line, projectFiles);
+			}
+			return;
+		}
+		int firstGlobChar = indexOfGlobChar(spec);
+		if (firstGlobChar >= 0) {
+			// walk the directory preceding the first glob character
+			int separator = Math.max(spec.lastIndexOf('/', firstGlobChar), spec.lastIndexOf(File.separatorChar, firstGlobChar));
+			Path base = separator < 0 ? Paths.get("") : Paths.get(separator == 0 ? spec.substring(0, 1) : spec.substring(0, separator));
+			PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + spec);
+			if (Files.isDirectory(base)) {
+				try (Stream<Path> paths = Files.walk(base)) {
+					paths.filter(path -> Files.isRegularFile(path) && matcher.matches(path))
+							.sorted()
+							.forEach(path -> projectFiles.add(path.toFile()));
+				}
+			}
+		} else if (new File(spec).isDirectory()) {
+			File[] files = new File(spec).listFiles((dir, name) -> name.endsWith(PROJECT_FILE_EXTENSION));
+			Arrays.sort(files);
+			projectFiles.addAll(Arrays.asList(files));
+		} else if (new File(spec).isFile() || spec.endsWith(PROJECT_FILE_EXTENSION)) {
+			projectFiles.add(new File(spec));
+		} else {
+			System.err.println("Ignoring the argument " + spec + ", it is not a project file");
+		}
+	}
+
+	private static int indexOfGlobChar(String spec) {
+		for (int i = 0; i < spec.length(); i++) {
+			if ("*?[{".indexOf(spec.charAt(i)) >= 0)
+				return i;
+		}
+		return -1;
+	}
+
+	private static String getBaseName(File projectFile) {
+		String name = projectFile.getName();
+		return name.endsWith(PROJECT_FILE_EXTENSION) ? name.substring(0, name.length() - PROJECT_FILE_EXTENSION.length()) : name;
+	}
+
+	private static void awaitRendering(Future<?> rendering) throws IOException {
+		if (rendering == null)
+			return;
+		try {
+			rendering.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for rendering", e);
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Timings, block and error counts of a project, written to {@link #SUMMARY_FILE}.
+	 */
+	private static class ProjectSummary {
+		private final File projectFile;
+		private long loadMillis;
+		private long collectMillis;
+		private long renderMillis;
+		private int blocks;
+		private int errors;
+		private String failure = null;
+		private CodegenStatistics statistics = null;
+
+		ProjectSummary(File projectFile) {
+			this.projectFile = projectFile;
+		}
+
+		void fail(Throwable e) {
+			e.printStackTrace();
+			errors++;
+			failure = String.valueOf(e).replaceAll("[\\t\\r\\n]+", " ");
+		}
+
+		boolean isFailed() {
+			return failure != null;
+		}
+
+		String toLine() {
+			return String.join("\t", projectFile.getPath(), failure == null ? "OK" : "FAILED", Long.toString(loadMillis),
+					Long.toString(collectMillis), Long.toString(renderMillis), Integer.toString(blocks),
+					Integer.toString(errors), failure == null ? "" : failure);
+		}
+	}
+
+	private static void writeSummaries(List<ProjectSummary> summaries) throws IOException {
+		List<String> lines = new ArrayList<>();
+		lines.add("project\tstatus\tload ms\tcollect ms\trender ms\tblocks\terrors\tfailure");
+		summaries.forEach(summary -> lines.add(summary.toLine()));
+		lines.forEach(System.out::println);
+		for (ProjectSummary summary : summaries) {
+			if (summary.statistics != null) {
+				System.out.println(summary.projectFile.getPath() + ":");
+				summary.statistics.printSummary(System.out);
+			}
+		}
+		File summaryFile = new File(SUMMARY_FILE);
+		summaryFile.getAbsoluteFile().getParentFile().mkdirs();
+		Files.write(summaryFile.toPath(), lines, StandardCharsets.UTF_8);
 	}
 
 }
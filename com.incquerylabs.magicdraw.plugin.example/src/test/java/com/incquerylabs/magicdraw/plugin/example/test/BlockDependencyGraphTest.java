@@ -0,0 +1,72 @@
+package com.incquerylabs.magicdraw.plugin.example.test;
+
+import static com.incquerylabs.magicdraw.plugin.example.test.CodegenBlockFixtures.block;
+import static com.incquerylabs.magicdraw.plugin.example.test.CodegenBlockFixtures.names;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.incquerylabs.magicdraw.plugin.example.codegen.BlockDependencyGraph;
+import com.incquerylabs.magicdraw.plugin.example.codegen.CodegenBlock;
+
+/**
+ * Checks the dependents, levels and import cycles of
+ * {@link BlockDependencyGraph}.
+ */
+public class BlockDependencyGraphTest {
+
+	private static final CodegenBlock.Ref PACKAGE = new CodegenBlock.Ref(null, "pkg");
+
+	@Test
+	public void dependentsAndLevelsFollowImportsAndPartTypes() {
+		CodegenBlock wheel = block(PACKAGE, "Wheel", Collections.emptyList());
+		CodegenBlock axle = block(PACKAGE, "Axle", Collections.emptyList(), wheel.getRef());
+		CodegenBlock car = block(PACKAGE, "Car",
+				Arrays.asList(axle.getRef(), wheel.getRef(), new CodegenBlock.Ref(PACKAGE, "Unknown")), axle.getRef());
+		BlockDependencyGraph graph = new BlockDependencyGraph(Arrays.asList(car, axle, wheel));
+
+		assertEquals(Arrays.asList("Axle", "Wheel"), names(graph.getDependencies(graph.indexOf(car.getRef()))));
+		assertEquals(Arrays.asList("Car", "Axle"), names(graph.getDependents(graph.indexOf(wheel.getRef()))));
+		assertEquals(3, graph.getLevels().size());
+		assertEquals(Arrays.asList("Wheel"), names(graph.getLevels().get(0)));
+		assertEquals(Arrays.asList("Car"), names(graph.getLevels().get(2)));
+		assertEquals(Collections.emptyList(), graph.getCycles());
+		assertEquals(-1, graph.indexOf(new CodegenBlock.Ref(PACKAGE, "Unknown")));
+	}
+
+	@Test
+	public void cyclesShareTheirLevel() {
+		CodegenBlock.Ref tool = new CodegenBlock.Ref(PACKAGE, "Tool");
+		CodegenBlock.Ref station = new CodegenBlock.Ref(PACKAGE, "Station");
+		CodegenBlock base = block(PACKAGE, "Base", Collections.emptyList());
+		BlockDependencyGraph graph = new BlockDependencyGraph(Arrays.asList(
+				block(PACKAGE, "Garage", Collections.emptyList(), station),
+				block(PACKAGE, "Station", Arrays.asList(tool), base.getRef()),
+				block(PACKAGE, "Tool", Arrays.asList(station)),
+				base));
+
+		assertEquals(1, graph.getCycles().size());
+		assertEquals(Arrays.asList("Station", "Tool"), names(graph.getCycles().get(0)));
+		assertEquals(1, graph.getLevel(graph.indexOf(tool)));
+		assertEquals(1, graph.getLevel(graph.indexOf(station)));
+		assertEquals(Arrays.asList("Garage"), names(graph.getLevels().get(2)));
+	}
+
+	@Test
+	public void connectorPathsReachNestedPartTypes() {
+		CodegenBlock hub = block(PACKAGE, "Hub", Collections.emptyList());
+		CodegenBlock wheel = block(PACKAGE, "Wheel", Collections.emptyList(), hub.getRef());
+		CodegenBlock.EndPath hubPort = new CodegenBlock.EndPath(Arrays.asList("wheel", "hub"), "axle");
+		CodegenBlock.EndPath ownPort = new CodegenBlock.EndPath(Collections.emptyList(), "drive");
+		CodegenBlock car = new CodegenBlock(null, new CodegenBlock.Ref(PACKAGE, "Car"), "Car", true,
+				Collections.emptyList(), Arrays.asList(new CodegenBlock.Part("wheel", wheel.getRef())),
+				Arrays.asList(new CodegenBlock.Assembly(ownPort, hubPort)), Collections.emptyList());
+		BlockDependencyGraph graph = new BlockDependencyGraph(Arrays.asList(car, wheel, hub));
+
+		assertEquals(Arrays.asList("Wheel", "Hub"), names(graph.getDependencies(graph.indexOf(car.getRef()))));
+		assertEquals(Arrays.asList("Car", "Wheel"), names(graph.getDependents(graph.indexOf(hub.getRef()))));
+	}
+}
@@ -0,0 +1,53 @@
+package com.incquerylabs.magicdraw.plugin.example.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.incquerylabs.magicdraw.plugin.example.codegen.CodegenBlock;
+
+/**
+ * Block snapshots without a model, for the tests of the classes working on
+ * the collected blocks of a run.
+ */
+public class CodegenBlockFixtures {
+
+	/**
+	 * A block with a valid name, a part named after each part type and no
+	 * connectors or ports.
+	 */
+	public static CodegenBlock block(CodegenBlock.Ref pack, String name, List<CodegenBlock.Ref> imports,
+			CodegenBlock.Ref... partTypes) {
+		return block(pack, name, true, imports, partTypes);
+	}
+
+	/**
+	 * A block importing the types of its parts.
+	 */
+	public static CodegenBlock block(CodegenBlock.Ref pack, String name, CodegenBlock.Ref... partTypes) {
+		return block(pack, name, true, Arrays.asList(partTypes), partTypes);
+	}
+
+	/**
+	 * A block whose name cannot be used in the generated code.
+	 */
+	public static CodegenBlock invalidBlock(CodegenBlock.Ref pack, String name) {
+		return block(pack, name, false, Collections.emptyList());
+	}
+
+	private static CodegenBlock block(CodegenBlock.Ref pack, String name, boolean nameValid,
+			List<CodegenBlock.Ref> imports, CodegenBlock.Ref... partTypes) {
+		List<CodegenBlock.Part> parts = new ArrayList<>();
+		for (CodegenBlock.Ref type : partTypes) {
+			parts.add(new CodegenBlock.Part(type.getName().toLowerCase(), type));
+		}
+		return new CodegenBlock(null, new CodegenBlock.Ref(pack, name), name, nameValid, imports, parts,
+				Collections.emptyList(), Collections.emptyList());
+	}
+
+	public static List<String> names(List<CodegenBlock> blocks) {
+		return blocks.stream().map(CodegenBlock::getName).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,68 @@
+package com.incquerylabs.magicdraw.plugin.example.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.incquerylabs.magicdraw.plugin.example.codegen.DryRunCodeOutlet;
+
+/**
+ * Checks the changes reported by {@link DryRunCodeOutlet} against an output
+ * directory, which must be left as it is.
+ */
+public class DryRunCodeOutletTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private void write(String path, String content) throws IOException {
+		File file = new File(folder.getRoot(), path);
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), content.getBytes(Charset.defaultCharset()));
+	}
+
+	private String read(String path) throws IOException {
+		return new String(Files.readAllBytes(new File(folder.getRoot(), path).toPath()), Charset.defaultCharset());
+	}
+
+	@Test
+	public void changesAreReportedAsDiffsWithoutWriting() throws IOException {
+		write("pkg/Same.py", "same\n");
+		write("pkg/Changed.py", "old\n");
+		write("pkg/Stale.py", "stale\n");
+		ByteArrayOutputStream diff = new ByteArrayOutputStream();
+		DryRunCodeOutlet outlet = new DryRunCodeOutlet(folder.getRoot(), new PrintStream(diff, true));
+		outlet.writeFile("pkg/Same.py", "same\n");
+		outlet.writeFile("pkg/Changed.py", "new\n");
+		outlet.writeFile("pkg/Added.py", "added\n");
+		outlet.close();
+		assertEquals("--- /dev/null\n+++ b/pkg/Added.py\n@@ -0,0 +1,1 @@\n+added\n"
+				+ "--- a/pkg/Changed.py\n+++ b/pkg/Changed.py\n@@ -1,1 +1,1 @@\n-old\n+new\n"
+				+ "--- a/pkg/Stale.py\n+++ /dev/null\n@@ -1,1 +0,0 @@\n-stale\n",
+				diff.toString(Charset.defaultCharset().name()));
+		assertEquals("old\n", read("pkg/Changed.py"));
+		assertEquals("stale\n", read("pkg/Stale.py"));
+		assertFalse(new File(folder.getRoot(), "pkg/Added.py").exists());
+	}
+
+	@Test
+	public void filesOfTheSameSizeAreComparedByContent() throws IOException {
+		write("Block.py", "abc");
+		ByteArrayOutputStream diff = new ByteArrayOutputStream();
+		DryRunCodeOutlet outlet = new DryRunCodeOutlet(folder.getRoot(), new PrintStream(diff, true));
+		outlet.writeFile("Block.py", "abd");
+		outlet.close();
+		assertEquals("--- a/Block.py\n+++ b/Block.py\n@@ -1,1 +1,1 @@\n-abc\n\\ No newline at end of file\n"
+				+ "+abd\n\\ No newline at end of file\n", diff.toString(Charset.defaultCharset().name()));
+	}
+}
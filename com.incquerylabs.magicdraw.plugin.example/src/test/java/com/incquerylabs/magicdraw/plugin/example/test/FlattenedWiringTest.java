@@ -0,0 +1,115 @@
+package com.incquerylabs.magicdraw.plugin.example.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.incquerylabs.magicdraw.plugin.example.codegen.CodegenBlock;
+import com.incquerylabs.magicdraw.plugin.example.codegen.FlattenedWiring;
+
+/**
+ * Checks {@link FlattenedWiring} on a car whose engine is connected to the
+ * front axle, which delegates to the hubs of its wheels.
+ */
+public class FlattenedWiringTest {
+
+	private static final CodegenBlock.Ref PACKAGE = new CodegenBlock.Ref(null, "pkg");
+	private static final CodegenBlock.Ref WHEEL = new CodegenBlock.Ref(PACKAGE, "Wheel");
+	private static final CodegenBlock.Ref AXLE = new CodegenBlock.Ref(PACKAGE, "Axle");
+	private static final CodegenBlock.Ref ENGINE = new CodegenBlock.Ref(PACKAGE, "Engine");
+	private static final CodegenBlock.Ref CAR = new CodegenBlock.Ref(PACKAGE, "Car");
+
+	private static CodegenBlock.EndPath end(String portName, String... ownerPath) {
+		return new CodegenBlock.EndPath(Arrays.asList(ownerPath), portName);
+	}
+
+	private static CodegenBlock block(CodegenBlock.Ref ref, List<CodegenBlock.Part> parts,
+			List<CodegenBlock.Assembly> assemblies, CodegenBlock.Port... ports) {
+		return new CodegenBlock(null, ref, ref.getName(), true, Collections.emptyList(), parts, assemblies,
+				Arrays.asList(ports));
+	}
+
+	private static FlattenedWiring carWiring() {
+		return new FlattenedWiring(Arrays.asList(
+				block(WHEEL, Collections.emptyList(), Collections.emptyList(),
+						new CodegenBlock.Port("hub", Collections.emptyList())),
+				block(AXLE,
+						Arrays.asList(new CodegenBlock.Part("left", WHEEL), new CodegenBlock.Part("right", WHEEL)),
+						Collections.emptyList(),
+						new CodegenBlock.Port("drive", Arrays.asList(end("hub", "left"), end("hub", "right")))),
+				block(ENGINE, Collections.emptyList(), Collections.emptyList(),
+						new CodegenBlock.Port("out", Collections.emptyList())),
+				block(CAR,
+						Arrays.asList(new CodegenBlock.Part("front", AXLE), new CodegenBlock.Part("engine", ENGINE)),
+						Arrays.asList(new CodegenBlock.Assembly(end("out", "engine"), end("drive", "front"))),
+						new CodegenBlock.Port("power", Arrays.asList(end("drive", "front"))))));
+	}
+
+	@Test
+	public void assemblyIsWiredThroughDelegations() {
+		List<String> wires = carWiring().getWires(CAR).stream()
+				.map(Object::toString)
+				.collect(Collectors.toList());
+		assertEquals(Arrays.asList(".engine.out=.front", ".front.drive=.engine", ".front.left.hub=.engine",
+				".front.right.hub=.engine"), wires);
+	}
+
+	@Test
+	public void delegationClosureReachesNestedPorts() {
+		List<String> closure = carWiring().getDelegationClosure(CAR, "power").stream()
+				.map(Object::toString)
+				.collect(Collectors.toList());
+		assertEquals(Arrays.asList(".front.drive", ".front.left.hub", ".front.right.hub"), closure);
+	}
+
+	@Test
+	public void partsWithoutConnectorsHaveNoWires() {
+		assertEquals(Collections.emptyList(), carWiring().getWires(AXLE));
+	}
+
+	@Test
+	public void topLevelBlocksInlineTheWiresOfTheirParts() {
+		CodegenBlock.Ref fleet = new CodegenBlock.Ref(PACKAGE, "Fleet");
+		FlattenedWiring wiring = new FlattenedWiring(Arrays.asList(
+				block(CAR, Arrays.asList(new CodegenBlock.Part("engine", ENGINE)),
+						Arrays.asList(new CodegenBlock.Assembly(end("out", "engine"), end("power")))),
+				block(ENGINE, Collections.emptyList(), Collections.emptyList(),
+						new CodegenBlock.Port("out", Collections.emptyList())),
+				block(fleet, Arrays.asList(new CodegenBlock.Part("first", CAR), new CodegenBlock.Part("second", CAR)),
+						Collections.emptyList())));
+		assertTrue(wiring.isTopLevel(fleet));
+		assertFalse(wiring.isTopLevel(CAR));
+		assertEquals(Collections.emptyList(), wiring.getWires(fleet));
+		assertEquals(Arrays.asList(".engine.out=", ".power=.engine"), toStrings(wiring.getWires(CAR)));
+		assertEquals(Arrays.asList(".first.engine.out=.first", ".first.power=.first.engine",
+				".second.engine.out=.second", ".second.power=.second.engine"),
+				toStrings(wiring.getTreeWires(fleet)));
+	}
+
+	@Test
+	public void portsOfPartsOutsideTheRunAreSetThroughSetters() {
+		CodegenBlock.Ref gearbox = new CodegenBlock.Ref(PACKAGE, "Gearbox");
+		FlattenedWiring wiring = new FlattenedWiring(Arrays.asList(
+				block(ENGINE, Collections.emptyList(), Collections.emptyList(),
+						new CodegenBlock.Port("out", Collections.emptyList())),
+				block(CAR,
+						Arrays.asList(new CodegenBlock.Part("engine", ENGINE), new CodegenBlock.Part("gearbox", gearbox)),
+						Arrays.asList(new CodegenBlock.Assembly(end("out", "engine"), end("in", "gearbox"))),
+						new CodegenBlock.Port("power", Arrays.asList(end("in", "gearbox"), end("shaft", "gearbox", "input"))))));
+		assertEquals(Arrays.asList(".engine.out=.gearbox", ".gearbox.in(setter)=.engine"),
+				toStrings(wiring.getWires(CAR)));
+		assertEquals(Arrays.asList(".gearbox.in(setter)", ".gearbox.input.shaft(setter)"),
+				toStrings(wiring.getDelegationClosure(CAR, "power")));
+	}
+
+	private static List<String> toStrings(List<?> list) {
+		return list.stream().map(Object::toString).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,97 @@
+package com.incquerylabs.magicdraw.plugin.example.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.incquerylabs.magicdraw.plugin.example.codegen.CodegenUtil;
+
+/**
+ * Checks {@link CodegenUtil#mangleName(String)} against the original regex
+ * based implementation.
+ */
+public class MangleNameTest {
+
+	/**
+	 * Representatives of every character class the mangling distinguishes:
+	 * lower and upper case letters, digits, separators and non-ASCII letters.
+	 */
+	private static final char[] ALPHABET = { 'a', 'v', 'A', 'B', '4', '0', '_', ' ', '\u00e9', '\u00c9' };
+	private static final int MAX_LENGTH = 5;
+
+	static String referenceMangleName(String umlName) {
+		String joined = CodegenUtil.SEPARATORS.splitAsStream(umlName).filter((seg) -> !seg.isEmpty()).map(
+				(seg) -> seg.equals(seg.toUpperCase()) ? seg
+						: Character.toLowerCase(seg.charAt(0)) + seg.substring(1))
+				.collect(Collectors.joining("_"));
+
+		while (joined.isEmpty() || CodegenUtil.RESERVED.contains(joined) || Character.isDigit(joined.charAt(0)) || joined.startsWith(CodegenUtil.V4MD_PREFIX))
+			joined = "_" + joined;
+
+		return joined;
+	}
+
+	private static void assertSameMangling(String umlName) {
+		assertEquals(umlName, referenceMangleName(umlName), CodegenUtil.mangleName(umlName));
+	}
+
+	@Test
+	public void allShortNames() {
+		char[] name = new char[MAX_LENGTH];
+		for (int length = 0; length <= MAX_LENGTH; length++) {
+			int[] digits = new int[length];
+			while (true) {
+				for (int i = 0; i < length; i++) {
+					name[i] = ALPHABET[digits[i]];
+				}
+				assertSameMangling(new String(name, 0, length));
+				// next name in lexicographic order
+				int i = length - 1;
+				while (i >= 0 && ++digits[i] == ALPHABET.length) {
+					digits[i--] = 0;
+				}
+				if (i < 0)
+					break;
+			}
+		}
+	}
+
+	@Test
+	public void reservedNames() {
+		for (String reserved : CodegenUtil.RESERVED) {
+			assertSameMangling(reserved);
+			assertSameMangling(reserved.toUpperCase());
+			assertSameMangling("_" + reserved);
+		}
+		assertSameMangling("v4md");
+		assertSameMangling("V4MD field");
+		assertSameMangling("_v4md_field_");
+	}
+
+	@Test
+	public void typicalNames() {
+		assertSameMangling("Python Codegen Example");
+		assertSameMangling("UMLModel");
+		assertSameMangling("abbreviatIONs");
+		assertSameMangling("HTTPServer2Port");
+		assertSameMangling("flow port #1 (in)");
+		assertSameMangling("\uD83D\uDE00 emoji Block");
+	}
+
+	@Test
+	public void randomNames() {
+		Random random = new Random(42);
+		for (int n = 0; n < 100_000; n++) {
+			char[] name = new char[random.nextInt(24)];
+			for (int i = 0; i < name.length; i++) {
+				// mostly ASCII, with occasional arbitrary characters
+				name[i] = random.nextInt(8) == 0 ? (char) random.nextInt(Character.MAX_VALUE + 1)
+						: (char) (' ' + random.nextInt('\u007f' - ' '));
+			}
+			assertSameMangling(new String(name));
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.incquerylabs.magicdraw.plugin.example.test;
+
+import static com.incquerylabs.magicdraw.plugin.example.test.CodegenBlockFixtures.block;
+import static com.incquerylabs.magicdraw.plugin.example.test.CodegenBlockFixtures.invalidBlock;
+import static com.incquerylabs.magicdraw.plugin.example.test.CodegenBlockFixtures.names;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.incquerylabs.magicdraw.plugin.example.codegen.CodegenBlock;
+import com.incquerylabs.magicdraw.plugin.example.codegen.PackageModules;
+
+/**
+ * Checks the ordering of the modules, imports and classes of
+ * {@link PackageModules} and the reported import cycles.
+ */
+public class PackageModulesTest {
+
+	private static final CodegenBlock.Ref ROOT = new CodegenBlock.Ref(null, "root");
+	private static final CodegenBlock.Ref VEHICLES = new CodegenBlock.Ref(ROOT, "vehicles");
+	private static final CodegenBlock.Ref PARTS = new CodegenBlock.Ref(ROOT, "parts");
+	private static final CodegenBlock.Ref SERVICE = new CodegenBlock.Ref(ROOT, "service");
+
+	@Test
+	public void modulesImportsAndClassesAreOrderedDependenciesFirst() {
+		CodegenBlock wheel = block(PARTS, "Wheel");
+		CodegenBlock axle = block(PARTS, "Axle", wheel.getRef());
+		CodegenBlock car = block(VEHICLES, "Car", axle.getRef(), wheel.getRef());
+		PackageModules modules = new PackageModules(Arrays.asList(car, axle, wheel));
+
+		assertEquals(Arrays.asList("root.parts", "root.vehicles"), new ArrayList<>(modules.getModuleNames()));
+		assertEquals(Arrays.asList("Wheel", "Axle"), names(modules.getBlocks("root.parts")));
+		assertEquals(Arrays.asList("root.parts"), new ArrayList<>(modules.getImports("root.vehicles")));
+		assertEquals("root/parts/__init__.py", PackageModules.getModuleFilePath(axle.getRef()));
+		assertTrue(modules.isHead(wheel));
+		assertFalse(modules.isHead(axle));
+		assertTrue(modules.isModuleFile("root/vehicles/__init__.py"));
+		assertFalse(modules.isModuleFile("root/__init__.py"));
+		assertEquals(Collections.emptyList(), modules.getCycles());
+	}
+
+	@Test
+	public void blocksWithInvalidNamesAreLeftOut() {
+		CodegenBlock wheel = block(PARTS, "Wheel");
+		CodegenBlock invalid = invalidBlock(PARTS, "Axle");
+		PackageModules modules = new PackageModules(Arrays.asList(invalid, wheel));
+
+		assertEquals(Arrays.asList("Wheel"), names(modules.getBlocks("root.parts")));
+		assertTrue(modules.isHead(wheel));
+		assertFalse(modules.isHead(invalid));
+	}
+
+	@Test
+	public void importCyclesAreReported() {
+		CodegenBlock tool = block(SERVICE, "Tool");
+		CodegenBlock wheel = block(PARTS, "Wheel", tool.getRef());
+		CodegenBlock station = block(SERVICE, "Station", wheel.getRef());
+		CodegenBlock car = block(VEHICLES, "Car", wheel.getRef());
+		PackageModules modules = new PackageModules(Arrays.asList(car, wheel, station, tool));
+
+		assertEquals(Arrays.asList(Arrays.asList("root.parts", "root.service")), modules.getCycles());
+		assertEquals("root.vehicles", new ArrayList<>(modules.getModuleNames()).get(2));
+		assertEquals("Import cycle between the modules root.parts, root.service", report(modules));
+	}
+
+	@Test
+	public void cyclesOfBlocksAreNotReportedAgain() {
+		CodegenBlock.Ref tool = new CodegenBlock.Ref(SERVICE, "Tool");
+		CodegenBlock wheel = block(PARTS, "Wheel", tool);
+		PackageModules modules = new PackageModules(Arrays.asList(wheel, block(SERVICE, "Tool", wheel.getRef())));
+
+		assertEquals(1, modules.getCycles().size());
+		assertEquals("", report(modules));
+	}
+
+	private static String report(PackageModules modules) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		modules.report(new PrintStream(out, true));
+		return out.toString().trim();
+	}
+}
@@ -0,0 +1,96 @@
+package com.incquerylabs.magicdraw.plugin.example.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.incquerylabs.magicdraw.plugin.example.codegen.CodeOutlet;
+import com.incquerylabs.magicdraw.plugin.example.codegen.PipelinedCodeOutlet;
+
+/**
+ * Checks that {@link PipelinedCodeOutlet} passes the operations on to its
+ * delegate in order and stops writing, but not draining, after a failure.
+ */
+public class PipelinedCodeOutletTest {
+
+	/**
+	 * Records the operations applied to it; fails writing the given path.
+	 */
+	private static class RecordingCodeOutlet implements CodeOutlet {
+		private final List<String> operations = Collections.synchronizedList(new ArrayList<>());
+		private final String failingPath;
+
+		RecordingCodeOutlet(String failingPath) {
+			this.failingPath = failingPath;
+		}
+
+		@Override
+		public void writeFile(String path, String content) throws IOException {
+			operations.add("write " + path);
+			if (path.equals(failingPath))
+				throw new IOException("Cannot write " + path);
+		}
+
+		@Override
+		public void ensureFile(String path) throws IOException {
+			operations.add("ensure " + path);
+		}
+
+		@Override
+		public void deleteFile(String path) throws IOException {
+			operations.add("delete " + path);
+		}
+
+		@Override
+		public void close() throws IOException {
+			operations.add("close");
+		}
+	}
+
+	@Test
+	public void operationsAreAppliedInOrder() throws IOException {
+		RecordingCodeOutlet delegate = new RecordingCodeOutlet(null);
+		PipelinedCodeOutlet outlet = new PipelinedCodeOutlet(delegate, 2);
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			outlet.writeFile(i + ".py", "");
+			expected.add("write " + i + ".py");
+		}
+		outlet.ensureFile("__init__.py");
+		outlet.deleteFile("old.py");
+		outlet.close();
+		expected.addAll(Arrays.asList("ensure __init__.py", "delete old.py", "close"));
+		assertEquals(expected, delegate.operations);
+	}
+
+	@Test
+	public void failureIsThrownByCloseAndLaterFilesAreDrainedWithoutWriting() throws IOException {
+		RecordingCodeOutlet delegate = new RecordingCodeOutlet("0.py");
+		PipelinedCodeOutlet outlet = new PipelinedCodeOutlet(delegate, 1);
+		int rejected = 0;
+		for (int i = 0; i < 200; i++) {
+			try {
+				outlet.writeFile(i + ".py", "");
+			} catch (IOException e) {
+				// the renderers see the failure once the writer has reported it
+				assertEquals("Cannot write 0.py", e.getMessage());
+				rejected++;
+			}
+		}
+		try {
+			outlet.close();
+			throw new AssertionError("The failure of the writer is not thrown by close");
+		} catch (IOException e) {
+			assertEquals("Cannot write 0.py", e.getMessage());
+		}
+		assertTrue(rejected > 0);
+		assertEquals(Arrays.asList("write 0.py", "close"), delegate.operations);
+	}
+}
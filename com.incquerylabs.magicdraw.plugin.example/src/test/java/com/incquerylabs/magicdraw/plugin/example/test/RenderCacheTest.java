@@ -0,0 +1,98 @@
+package com.incquerylabs.magicdraw.plugin.example.test;
+
+import static com.incquerylabs.magicdraw.plugin.example.test.CodegenBlockFixtures.block;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.incquerylabs.magicdraw.plugin.example.codegen.CodegenBlock;
+import com.incquerylabs.magicdraw.plugin.example.codegen.RenderCache;
+
+/**
+ * Checks the keys, the entries and the clean-up of {@link RenderCache} in a
+ * temporary cache directory.
+ */
+public class RenderCacheTest {
+
+	private static final CodegenBlock.Ref PACKAGE = new CodegenBlock.Ref(null, "pkg");
+	private static final CodegenBlock.Ref WHEEL = new CodegenBlock.Ref(PACKAGE, "Wheel");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void keyDependsOnSaltAndBlockContents() {
+		String key = RenderCache.computeKey(block(PACKAGE, "Car", WHEEL), "python:1");
+		assertTrue(key.matches("[0-9a-f]{64}"));
+		assertEquals(key, RenderCache.computeKey(block(PACKAGE, "Car", WHEEL), "python:1"));
+		assertFalse(key.equals(RenderCache.computeKey(block(PACKAGE, "Car", WHEEL), "python:2")));
+		assertFalse(key.equals(RenderCache.computeKey(block(PACKAGE, "Car"), "python:1")));
+		assertFalse(key.equals(RenderCache.computeKey(block(PACKAGE, "Bus", WHEEL), "python:1")));
+	}
+
+	@Test
+	public void textIsRenderedOnMissAndReadOnHit() {
+		AtomicInteger renders = new AtomicInteger();
+		RenderCache cache = new RenderCache(folder.getRoot());
+		assertEquals("code1", cache.computeIfAbsent("key", () -> "code" + renders.incrementAndGet()));
+		assertEquals("code1", cache.computeIfAbsent("key", () -> "code" + renders.incrementAndGet()));
+		assertEquals("other2", cache.computeIfAbsent("other", () -> "other" + renders.incrementAndGet()));
+		assertEquals(2, cache.getMisses());
+		assertEquals(1, cache.getHits());
+		// a later run reads the entries of the previous one
+		RenderCache later = new RenderCache(folder.getRoot());
+		assertEquals("code1", later.computeIfAbsent("key", () -> "code" + renders.incrementAndGet()));
+		assertEquals(1, later.getHits());
+		assertEquals(2, renders.get());
+	}
+
+	@Test
+	public void entriesArePublishedWithoutTemporaryFiles() throws IOException {
+		RenderCache cache = new RenderCache(folder.getRoot());
+		cache.computeIfAbsent("key", () -> "code");
+		try {
+			cache.computeIfAbsent("failing", () -> {
+				throw new IllegalStateException("Template failed");
+			});
+		} catch (IllegalStateException e) {
+			// no entry is stored for the failed render
+		}
+		assertEquals("code", new String(Files.readAllBytes(cache.getEntryPath("key")), "UTF-8"));
+		assertFalse(Files.exists(cache.getEntryPath("failing")));
+		assertEquals(Arrays.asList(cache.getEntryPath("key").toFile()), Arrays.asList(folder.getRoot().listFiles()));
+	}
+
+	@Test
+	public void cleanUpDeletesTheLeastRecentlyUsedEntries() throws IOException {
+		RenderCache cache = new RenderCache(folder.getRoot(), 2);
+		long now = System.currentTimeMillis();
+		for (String key : Arrays.asList("a", "b", "c")) {
+			cache.computeIfAbsent(key, () -> key);
+		}
+		setLastModified(cache, "a", now - 30_000);
+		setLastModified(cache, "b", now - 20_000);
+		setLastModified(cache, "c", now - 10_000);
+		// a hit makes the oldest entry the most recently used one
+		cache.computeIfAbsent("a", () -> "a");
+		assertEquals(1, cache.cleanUp());
+		assertTrue(Files.exists(cache.getEntryPath("a")));
+		assertFalse(Files.exists(cache.getEntryPath("b")));
+		assertTrue(Files.exists(cache.getEntryPath("c")));
+		assertEquals(0, cache.cleanUp());
+	}
+
+	private static void setLastModified(RenderCache cache, String key, long time) {
+		File entry = cache.getEntryPath(key).toFile();
+		assertTrue(entry.setLastModified(time));
+	}
+}
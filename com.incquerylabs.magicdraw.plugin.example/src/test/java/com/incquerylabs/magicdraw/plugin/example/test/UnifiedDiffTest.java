@@ -0,0 +1,75 @@
+package com.incquerylabs.magicdraw.plugin.example.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.incquerylabs.magicdraw.plugin.example.codegen.UnifiedDiff;
+
+/**
+ * Checks the hunks of {@link UnifiedDiff} on texts of numbered lines.
+ */
+public class UnifiedDiffTest {
+
+	/**
+	 * The lines from 1 to the given number, except the skipped ones, each
+	 * followed by a line break.
+	 */
+	private static String lines(int count, int... skipped) {
+		return IntStream.rangeClosed(1, count)
+				.filter(line -> IntStream.of(skipped).noneMatch(skip -> skip == line))
+				.mapToObj(line -> line + "\n")
+				.collect(Collectors.joining());
+	}
+
+	@Test
+	public void sameTextsHaveNoDiff() {
+		assertEquals("", UnifiedDiff.diff("a.py", lines(5), lines(5)));
+	}
+
+	@Test
+	public void addedFileIsInsertedEntirely() {
+		assertEquals("--- /dev/null\n+++ b/a.py\n@@ -0,0 +1,2 @@\n+1\n+2\n", UnifiedDiff.diff("a.py", null, lines(2)));
+	}
+
+	@Test
+	public void removedFileIsDeletedEntirely() {
+		assertEquals("--- a/a.py\n+++ /dev/null\n@@ -1,2 +0,0 @@\n-1\n-2\n", UnifiedDiff.diff("a.py", lines(2), null));
+	}
+
+	@Test
+	public void emptyFilesAreComparedByLines() {
+		assertEquals("", UnifiedDiff.diff("a.py", "", null));
+		assertEquals("--- a/a.py\n+++ b/a.py\n@@ -0,0 +1,1 @@\n+1\n", UnifiedDiff.diff("a.py", "", lines(1)));
+	}
+
+	@Test
+	public void missingLineBreakAtTheEndIsMarked() {
+		assertEquals("--- a/a.py\n+++ b/a.py\n@@ -1,2 +1,2 @@\n 1\n-2\n+2\n\\ No newline at end of file\n",
+				UnifiedDiff.diff("a.py", lines(2), "1\n2"));
+	}
+
+	@Test
+	public void insertedLineIsShownWithContext() {
+		String newText = lines(10).replace("5\n", "5\nx\n");
+		assertEquals("--- a/a.py\n+++ b/a.py\n@@ -3,6 +3,7 @@\n 3\n 4\n 5\n+x\n 6\n 7\n 8\n",
+				UnifiedDiff.diff("a.py", lines(10), newText));
+	}
+
+	@Test
+	public void deletedLineIsShownWithContext() {
+		assertEquals("--- a/a.py\n+++ b/a.py\n@@ -2,7 +2,6 @@\n 2\n 3\n 4\n-5\n 6\n 7\n 8\n",
+				UnifiedDiff.diff("a.py", lines(10), lines(10, 5)));
+	}
+
+	@Test
+	public void changesWithinTwiceTheContextShareAHunk() {
+		assertEquals("--- a/a.py\n+++ b/a.py\n@@ -1,13 +1,11 @@\n 1\n 2\n-3\n 4\n 5\n 6\n 7\n 8\n 9\n-10\n 11\n 12\n 13\n",
+				UnifiedDiff.diff("a.py", lines(20), lines(20, 3, 10)));
+		assertEquals("--- a/a.py\n+++ b/a.py\n@@ -1,6 +1,5 @@\n 1\n 2\n-3\n 4\n 5\n 6\n@@ -8,7 +7,6 @@\n 8\n 9\n 10\n-11\n 12\n 13\n 14\n",
+				UnifiedDiff.diff("a.py", lines(20), lines(20, 3, 11)));
+	}
+}
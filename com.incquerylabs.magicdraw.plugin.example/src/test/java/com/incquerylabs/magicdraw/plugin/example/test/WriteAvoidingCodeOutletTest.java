@@ -0,0 +1,112 @@
+package com.incquerylabs.magicdraw.plugin.example.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.incquerylabs.magicdraw.plugin.example.codegen.WriteAvoidingCodeOutlet;
+
+/**
+ * Checks which files {@link WriteAvoidingCodeOutlet} writes in a second run
+ * over the output of a first one.
+ */
+public class WriteAvoidingCodeOutletTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Records the paths of the files it writes.
+	 */
+	private static class RecordingOutlet extends WriteAvoidingCodeOutlet {
+		private final List<String> writtenPaths = Collections.synchronizedList(new ArrayList<>());
+
+		RecordingOutlet(File root) throws IOException {
+			super(root);
+		}
+
+		@Override
+		protected void writeBytes(String path, byte[] content) throws IOException {
+			writtenPaths.add(path);
+			super.writeBytes(path, content);
+		}
+	}
+
+	private List<String> run(String... pathsAndContents) throws IOException {
+		RecordingOutlet outlet = new RecordingOutlet(folder.getRoot());
+		for (int i = 0; i < pathsAndContents.length; i += 2) {
+			outlet.writeFile(pathsAndContents[i], pathsAndContents[i + 1]);
+		}
+		outlet.close();
+		return outlet.writtenPaths;
+	}
+
+	private File file(String path) {
+		return new File(folder.getRoot(), path);
+	}
+
+	private String read(String path) throws IOException {
+		return new String(Files.readAllBytes(file(path).toPath()), Charset.defaultCharset());
+	}
+
+	@Test
+	public void unchangedFileIsNotWritten() throws IOException {
+		assertEquals(Arrays.asList("a.py"), run("a.py", "a = 1\n"));
+		assertEquals(Collections.emptyList(), run("a.py", "a = 1\n"));
+	}
+
+	@Test
+	public void changedFileIsWritten() throws IOException {
+		run("a.py", "a = 1\n", "b.py", "b = 1\n");
+		assertEquals(Arrays.asList("a.py"), run("a.py", "a = 2\n", "b.py", "b = 1\n"));
+		assertEquals("a = 2\n", read("a.py"));
+	}
+
+	@Test
+	public void fileEditedByHandIsWrittenAgain() throws IOException {
+		run("a.py", "a = 1\n");
+		long generated = file("a.py").lastModified();
+		Files.write(file("a.py").toPath(), "a = 9\n".getBytes(Charset.defaultCharset()));
+		// beyond the resolution of the modification times of any file system
+		file("a.py").setLastModified(generated - 10_000);
+		assertEquals(Arrays.asList("a.py"), run("a.py", "a = 1\n"));
+		assertEquals("a = 1\n", read("a.py"));
+	}
+
+	@Test
+	public void touchedFileIsNotWritten() throws IOException {
+		run("a.py", "a = 1\n");
+		file("a.py").setLastModified(file("a.py").lastModified() - 10_000);
+		assertEquals(Collections.emptyList(), run("a.py", "a = 1\n"));
+		// the new modification time is recorded
+		assertEquals(Collections.emptyList(), run("a.py", "a = 1\n"));
+	}
+
+	@Test
+	public void deletedFileIsWrittenAgain() throws IOException {
+		run("a.py", "a = 1\n");
+		Files.delete(file("a.py").toPath());
+		assertEquals(Arrays.asList("a.py"), run("a.py", "a = 1\n"));
+		assertEquals("a = 1\n", read("a.py"));
+	}
+
+	@Test
+	public void fileNoLongerGeneratedIsDeleted() throws IOException {
+		run("a.py", "a = 1\n", "pkg/b.py", "b = 1\n");
+		assertEquals(Collections.emptyList(), run("a.py", "a = 1\n"));
+		assertFalse(file("pkg/b.py").exists());
+		assertFalse(file("pkg").exists());
+	}
+}
@@ -4,11 +4,29 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import com.incquerylabs.magicdraw.plugin.example.test.BlockDependencyGraphTest;
+import com.incquerylabs.magicdraw.plugin.example.test.DryRunCodeOutletTest;
 import com.incquerylabs.magicdraw.plugin.example.test.DummyTest;
+import com.incquerylabs.magicdraw.plugin.example.test.FlattenedWiringTest;
+import com.incquerylabs.magicdraw.plugin.example.test.MangleNameTest;
+import com.incquerylabs.magicdraw.plugin.example.test.PackageModulesTest;
+import com.incquerylabs.magicdraw.plugin.example.test.PipelinedCodeOutletTest;
+import com.incquerylabs.magicdraw.plugin.example.test.RenderCacheTest;
+import com.incquerylabs.magicdraw.plugin.example.test.UnifiedDiffTest;
+import com.incquerylabs.magicdraw.plugin.example.test.WriteAvoidingCodeOutletTest;
 
 @RunWith(Suite.class)
 @SuiteClasses({
-		DummyTest.class
+		DummyTest.class,
+		MangleNameTest.class,
+		FlattenedWiringTest.class,
+		PackageModulesTest.class,
+		BlockDependencyGraphTest.class,
+		UnifiedDiffTest.class,
+		DryRunCodeOutletTest.class,
+		PipelinedCodeOutletTest.class,
+		WriteAvoidingCodeOutletTest.class,
+		RenderCacheTest.class
 })
 
 public class AllTests {}